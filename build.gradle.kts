@@ -33,14 +33,28 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks live in src/jmh/java and run against the main classes; see the jmh task below
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 val seleniumJavaVersion = "4.14.1"
 val seleniumJupiterVersion = "5.0.1"
 val webdrivermanagerVersion = "5.6.3"
 val junitJupiterVersion = "5.9.1"
+val jmhVersion = "1.37"
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    // Only serves requests under the "reactive" profile; the servlet stack stays the default
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     compileOnly("org.projectlombok:lombok")
     
@@ -50,12 +64,16 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.projectreactor:reactor-test")
     testImplementation("org.seleniumhq.selenium:selenium-java:$seleniumJavaVersion")
     testImplementation("io.github.bonigarcia:selenium-jupiter:$seleniumJupiterVersion")
     testImplementation("io.github.bonigarcia:webdrivermanager:$webdrivermanagerVersion")
     testImplementation("org.junit.jupiter:junit-jupiter:$junitJupiterVersion")
 
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
     
 }
 
@@ -77,8 +95,28 @@ tasks.register<Test>("functionalTest") {
 	}
 }
 
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH benchmarks and writes JSON results that can be compared between commits."
+	group = "verification"
+
+	classpath = jmh.runtimeClasspath
+	mainClass = "id.ac.ui.cs.advprog.eshop.BenchmarkMatrix"
+
+	// -Pjmh.include=<regex>, -Pjmh.threads=1,8, -Pjmh.sizes=1000,1000000, -Pjmh.output=<file>,
+	// -Pjmh.baseline=<results of an earlier commit> to print the change per benchmark
+	systemProperty("eshop.jmh.output", layout.buildDirectory.file("results/jmh/results.json").get().asFile.path)
+	listOf("include", "threads", "sizes", "output", "baseline").forEach { name ->
+		project.findProperty("jmh.$name")?.let { systemProperty("eshop.jmh.$name", it.toString()) }
+	}
+}
+
 tasks.withType<Test>().configureEach {
 	useJUnitPlatform()
+
+	// Passes -Deshop.* flags such as -Deshop.benchmark=true through to the test JVM
+	System.getProperties().stringPropertyNames().filter { it.startsWith("eshop.") }.forEach {
+		systemProperty(it, System.getProperty(it))
+	}
 }
 
 tasks.test {
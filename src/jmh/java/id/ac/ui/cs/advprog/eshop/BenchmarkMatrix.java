@@ -0,0 +1,100 @@
+package id.ac.ui.cs.advprog.eshop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks once per thread count and writes every result to a
+ * single JMH JSON file, which records the thread count and parameters of each
+ * score. Given the file of an earlier commit as a baseline, it also prints how
+ * each score moved.
+ *
+ * <pre>./gradlew jmh -Pjmh.include=ProductRepository -Pjmh.threads=1,4 -Pjmh.sizes=1000,1000000</pre>
+ */
+public final class BenchmarkMatrix {
+
+    private BenchmarkMatrix() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("eshop.jmh.include", "id\\.ac\\.ui\\.cs\\.advprog\\.eshop\\..*Benchmark");
+        String[] threads = System.getProperty("eshop.jmh.threads", "1,4").split(",");
+        String sizes = System.getProperty("eshop.jmh.sizes");
+        Path output = Path.of(System.getProperty("eshop.jmh.output", "build/results/jmh/results.json"));
+
+        List<RunResult> results = new ArrayList<>();
+        for (String threadCount : threads) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.include(include).threads(Integer.parseInt(threadCount.trim()));
+            // Without an override every size in the benchmarks' @Param runs
+            if (sizes != null) {
+                options.param("size", sizes.split(","));
+            }
+            results.addAll(new Runner(options.build()).run());
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output), true, StandardCharsets.UTF_8)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+        System.out.println("Results written to " + output.toAbsolutePath());
+
+        String baseline = System.getProperty("eshop.jmh.baseline");
+        if (baseline != null) {
+            compare(Path.of(baseline), output);
+        }
+    }
+
+    private static void compare(Path baseline, Path current) throws IOException {
+        Map<String, JsonNode> before = scores(baseline);
+        Map<String, JsonNode> after = scores(current);
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode old = before.get(entry.getKey());
+            double score = entry.getValue().path("primaryMetric").path("score").asDouble();
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            if (old == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+            double oldScore = old.path("primaryMetric").path("score").asDouble();
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%n",
+                    entry.getKey(), oldScore, score, (score - oldScore) * 100 / oldScore, unit);
+        }
+    }
+
+    // Keyed by benchmark, thread count and parameters, so runs with different matrices still line up
+    private static Map<String, JsonNode> scores(Path file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("id.ac.ui.cs.advprog.eshop.", ""));
+            key.append(" t=").append(result.path("threads").asInt());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            scores.put(key.toString(), result);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,162 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same operations as {@link ProductRepositoryBenchmark}, against the
+ * in-memory car repository.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CarRepositoryBenchmark {
+
+    // Creates or deletes per thread in one single-shot measurement
+    static final int BATCH = 1_000;
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    CarRepository repository;
+    String[] ids;
+
+    @Setup(Level.Trial)
+    public void load() {
+        repository = new CarRepository();
+        ids = new String[size];
+        for (int start = 0; start < size; start += LOAD_BATCH) {
+            List<Car> batch = new ArrayList<>(LOAD_BATCH);
+            for (int i = start; i < Math.min(size, start + LOAD_BATCH); i++) {
+                batch.add(car("c-" + i, i));
+            }
+            repository.createAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                ids[start + i] = batch.get(i).getCarId();
+            }
+        }
+    }
+
+    static Car car(String id, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName("Car " + id);
+        car.setCarColor("Red");
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Car findById() {
+        return repository.findById(randomId());
+    }
+
+    // A full scan, as the car list page does
+    @Benchmark
+    public long findAll() {
+        long stock = 0;
+        for (Car car : repository.findAll()) {
+            stock += car.getCarQuantity();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public Car update() {
+        String id = randomId();
+        return repository.update(car(id, ThreadLocalRandom.current().nextInt(1_000)));
+    }
+
+    /** Cars a thread will create during one iteration, removed again afterwards. */
+    @State(Scope.Thread)
+    public static class NewCars {
+        private final List<Car> cars = new ArrayList<>(BATCH);
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(ThreadParams thread) {
+            cars.clear();
+            next = 0;
+            String prefix = "new-" + thread.getThreadIndex() + "-" + System.nanoTime() + "-";
+            for (int i = 0; i < BATCH; i++) {
+                cars.add(car(prefix + i, i));
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void remove(CarRepositoryBenchmark benchmark) {
+            benchmark.repository.deleteAll(cars.stream().map(Car::getCarId).toList());
+        }
+
+        Car next() {
+            return cars.get(next++);
+        }
+    }
+
+    /** Cars created for a thread before an iteration so it has something to delete. */
+    @State(Scope.Thread)
+    public static class DoomedCars {
+        private final List<String> ids = new ArrayList<>(BATCH);
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(CarRepositoryBenchmark benchmark, ThreadParams thread) {
+            List<Car> cars = new ArrayList<>(BATCH);
+            String prefix = "doomed-" + thread.getThreadIndex() + "-" + System.nanoTime() + "-";
+            for (int i = 0; i < BATCH; i++) {
+                cars.add(car(prefix + i, i));
+            }
+            ids.clear();
+            benchmark.repository.createAll(cars).forEach(car -> ids.add(car.getCarId()));
+            next = 0;
+        }
+
+        String next() {
+            return ids.get(next++);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public Car create(NewCars cars) {
+        return repository.create(cars.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public void delete(DoomedCars cars) {
+        repository.delete(cars.next());
+    }
+}
@@ -0,0 +1,163 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations on the in-memory product repository against a catalog of
+ * {@code size} products. Reads and updates run for a fixed time; creates and
+ * deletes run in single-shot batches so the catalog is back to its starting
+ * size after every iteration.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductRepositoryBenchmark {
+
+    // Creates or deletes per thread in one single-shot measurement
+    static final int BATCH = 1_000;
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    ProductRepository repository;
+    String[] ids;
+
+    @Setup(Level.Trial)
+    public void load() {
+        repository = new ProductRepository();
+        ids = new String[size];
+        for (int start = 0; start < size; start += LOAD_BATCH) {
+            List<Product> batch = new ArrayList<>(LOAD_BATCH);
+            for (int i = start; i < Math.min(size, start + LOAD_BATCH); i++) {
+                batch.add(product("p-" + i, i));
+            }
+            repository.createAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                ids[start + i] = batch.get(i).getProductId();
+            }
+        }
+    }
+
+    static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Product findById() {
+        return repository.findById(randomId());
+    }
+
+    // A full scan, which is what the list page and the CSV export do
+    @Benchmark
+    public long findAll() {
+        long stock = 0;
+        for (Product product : repository.findAll()) {
+            stock += product.getProductQuantity();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public Product update() {
+        String id = randomId();
+        return repository.update(product(id, ThreadLocalRandom.current().nextInt(1_000)));
+    }
+
+    /** Products a thread will create during one iteration, removed again afterwards. */
+    @State(Scope.Thread)
+    public static class NewProducts {
+        private final List<Product> products = new ArrayList<>(BATCH);
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(ThreadParams thread) {
+            products.clear();
+            next = 0;
+            String prefix = "new-" + thread.getThreadIndex() + "-" + System.nanoTime() + "-";
+            for (int i = 0; i < BATCH; i++) {
+                products.add(product(prefix + i, i));
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void remove(ProductRepositoryBenchmark benchmark) {
+            benchmark.repository.deleteAll(products.stream().map(Product::getProductId).toList());
+        }
+
+        Product next() {
+            return products.get(next++);
+        }
+    }
+
+    /** Products created for a thread before an iteration so it has something to delete. */
+    @State(Scope.Thread)
+    public static class DoomedProducts {
+        private final List<String> ids = new ArrayList<>(BATCH);
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(ProductRepositoryBenchmark benchmark, ThreadParams thread) {
+            List<Product> products = new ArrayList<>(BATCH);
+            String prefix = "doomed-" + thread.getThreadIndex() + "-" + System.nanoTime() + "-";
+            for (int i = 0; i < BATCH; i++) {
+                products.add(product(prefix + i, i));
+            }
+            ids.clear();
+            benchmark.repository.createAll(products).forEach(product -> ids.add(product.getProductId()));
+            next = 0;
+        }
+
+        String next() {
+            return ids.get(next++);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public Product create(NewProducts products) {
+        return repository.create(products.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public void delete(DoomedProducts products) {
+        repository.delete(products.next());
+    }
+}
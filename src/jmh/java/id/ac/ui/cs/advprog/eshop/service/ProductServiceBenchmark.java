@@ -0,0 +1,101 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The product service over the in-memory repository, so lookups go through
+ * the product cache and updates through its invalidation listener. Compare
+ * with {@code ProductRepositoryBenchmark} for what the service layer costs.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductServiceBenchmark {
+
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    ProductServiceImpl service;
+    String[] ids;
+
+    @Setup(Level.Trial)
+    public void load() throws ReflectiveOperationException {
+        service = new ProductServiceImpl();
+        // Wired the way Spring would, without starting a context
+        Field repository = ProductServiceImpl.class.getDeclaredField("productRepository");
+        repository.setAccessible(true);
+        repository.set(service, new ProductRepository());
+        Field cache = ProductServiceImpl.class.getDeclaredField("productCache");
+        cache.setAccessible(true);
+        cache.set(service, new ProductCache(10_000, Duration.ofSeconds(300)));
+        service.trackRepositoryChanges();
+
+        ids = new String[size];
+        for (int start = 0; start < size; start += LOAD_BATCH) {
+            List<Product> batch = new ArrayList<>(LOAD_BATCH);
+            for (int i = start; i < Math.min(size, start + LOAD_BATCH); i++) {
+                batch.add(product("p-" + i, i));
+            }
+            service.createAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                ids[start + i] = batch.get(i).getProductId();
+            }
+        }
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Product findById() {
+        return service.findById(randomId());
+    }
+
+    @Benchmark
+    public long findAll() {
+        long stock = 0;
+        for (Product product : service.findAll()) {
+            stock += product.getProductQuantity();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public Product update() {
+        return service.update(product(randomId(), ThreadLocalRandom.current().nextInt(1_000)));
+    }
+}
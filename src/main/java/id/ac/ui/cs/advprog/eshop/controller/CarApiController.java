@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * JSON API next to the HTML pages of {@link CarController}. The list is
+ * streamed: cars are read from the repository a page at a time and
+ * written straight to the response, so no full list or JSON string is built.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/cars")
+public class CarApiController {
+
+    // Cars read from the repository per step while streaming the list
+    static final int STREAM_BATCH_SIZE = 500;
+
+    private final CarService service;
+    private final ObjectMapper objectMapper;
+
+    public CarApiController(CarService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listCars() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                // The servlet container owns the response stream
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeStartArray();
+                String cursor = null;
+                do {
+                    CursorPage<Car> page = service.findPage(cursor, STREAM_BATCH_SIZE);
+                    for (Car car : page.getItems()) {
+                        json.writeObject(car);
+                    }
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Below their reorder threshold, lowest stock first
+    @GetMapping("/low-stock")
+    public List<Car> lowStock() {
+        return service.findLowStock();
+    }
+
+    // Without a threshold the car goes back to the default one
+    @PutMapping("/{carId}/low-stock-threshold")
+    public ResponseEntity<Void> setLowStockThreshold(@PathVariable String carId,
+                                                     @RequestParam(required = false) Integer threshold) {
+        if (service.findById(carId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        service.setLowStockThreshold(carId, threshold);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{carId}")
+    public ResponseEntity<Car> getCar(@PathVariable String carId) {
+        Car car = service.findById(carId);
+        return car == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(car);
+    }
+
+    @PostMapping
+    public ResponseEntity<Car> createCar(@RequestBody Car car) {
+        // Creating over an existing id would silently replace that car
+        Car created = service.createIfAbsent(car);
+        if (created == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        URI location = UriComponentsBuilder.fromPath("/api/cars/{carId}")
+                .buildAndExpand(created.getCarId()).encode().toUri();
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @PutMapping("/{carId}")
+    public ResponseEntity<Car> updateCar(@PathVariable String carId, @RequestBody Car car) {
+        car.setCarId(carId);
+        Car updated = service.update(carId, car);
+        return updated == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(updated);
+    }
+
+    @DeleteMapping("/{carId}")
+    public ResponseEntity<Void> deleteCar(@PathVariable String carId) {
+        if (service.findById(carId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        service.deleteCarById(carId);
+        return ResponseEntity.noContent().build();
+    }
+}
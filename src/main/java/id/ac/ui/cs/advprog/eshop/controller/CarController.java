@@ -1,17 +1,31 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
 import id.ac.ui.cs.advprog.eshop.service.CarService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiFunction;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/car")
 public class CarController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Rows read from the repository per flushed chunk when the whole list is streamed
+    static final int STREAM_BATCH_SIZE = 500;
+
     private final CarService carservice;
 
     public CarController(CarService carService) {
@@ -31,10 +45,57 @@ public class CarController {
         return "redirect:listCar";
     }
 
+    @PostMapping("/importCar")
+    public String importCarsPost(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("importMessage", "Choose a CSV file to import");
+            return "redirect:/car/listCar";
+        }
+        String message;
+        try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            message = "Imported " + carservice.importCsv(csv) + " cars";
+        } catch (IllegalArgumentException | IOException e) {
+            message = "Import failed: " + e.getMessage();
+        }
+        redirectAttributes.addFlashAttribute("importMessage", message);
+        return "redirect:/car/listCar";
+    }
+
     @GetMapping("/listCar") 
-    public String carListPage(Model model) {
-        List<Car> allCars = carservice.findAll();
-        model.addAttribute("cars", allCars);
+    public String carListPage(@RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "20") int size,
+                              @RequestParam(defaultValue = "false") boolean all,
+                              @RequestParam(required = false) String sort,
+                              @RequestParam(required = false) Integer minQuantity,
+                              @RequestParam(required = false) Integer maxQuantity, Model model,
+                              ServletWebRequest webRequest) {
+        // Answered before any car is read or the template rendered
+        if (ConditionalRequests.isNotModified(webRequest, model, carservice.getVersion(), carservice.getLastModified())) {
+            return null;
+        }
+        QuantityOrder order = QuantityOrder.from(sort, minQuantity, maxQuantity);
+        BiFunction<String, Integer, CursorPage<Car>> pages = carservice::findPage;
+        if (order != null) {
+            pages = (from, count) -> carservice.findPageByQuantity(order.min, order.max, order.descending, from, count);
+            order.addTo(model);
+        }
+        if (all) {
+            // Rows are read and flushed in chunks while the template renders
+            model.addAttribute("cars", new StreamedRows<>(pages, STREAM_BATCH_SIZE, webRequest));
+            model.addAttribute("streaming", true);
+            return "carList";
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        CursorPage<Car> page;
+        try {
+            page = pages.apply(cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            // Tampered or stale cursor, start over from the first page
+            return "redirect:/car/listCar";
+        }
+        model.addAttribute("cars", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", pageSize);
         return "carList";
     }
 
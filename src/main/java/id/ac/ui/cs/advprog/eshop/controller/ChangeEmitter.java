@@ -0,0 +1,80 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.ChangeEvent;
+import id.ac.ui.cs.advprog.eshop.service.ChangeSubscription;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Sends a change subscription to the client as server-sent events. Events are
+ * written a batch at a time on the executor, never on the thread that made the
+ * write, so a slow client only holds up itself while its changes wait,
+ * coalesced, in the subscription. A client that falls so far behind that its
+ * changes were dropped is sent the reset and then disconnected; it reloads and
+ * reconnects from the reset's token instead of holding a thread and a buffer.
+ */
+final class ChangeEmitter<T> {
+
+    // Events written per task before the emitter yields the executor thread
+    static final int SEND_BATCH_SIZE = 100;
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile ChangeSubscription<T> subscription;
+
+    private ChangeEmitter(SseEmitter emitter, Executor executor) {
+        this.emitter = emitter;
+        this.executor = executor;
+    }
+
+    /**
+     * The emitter completes on the server's async request timeout; browsers
+     * then reconnect with the Last-Event-ID header and carry on from there.
+     */
+    static <T> SseEmitter open(BiFunction<String, Runnable, ChangeSubscription<T>> subscribe, String resumeToken,
+                               Executor executor) {
+        ChangeEmitter<T> changes = new ChangeEmitter<>(new SseEmitter(), executor);
+        changes.subscription = subscribe.apply(resumeToken, changes::schedule);
+        changes.emitter.onCompletion(changes.subscription::close);
+        changes.emitter.onError(error -> changes.subscription.close());
+        changes.schedule();
+        return changes.emitter;
+    }
+
+    private void schedule() {
+        if (subscription != null && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::send);
+        }
+    }
+
+    private void send() {
+        try {
+            for (ChangeEvent<T> event : subscription.poll(SEND_BATCH_SIZE)) {
+                emitter.send(SseEmitter.event()
+                        .id(event.getToken())
+                        .name(event.getType().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter completed; leave scheduled set so nothing more is sent
+            subscription.close();
+            return;
+        }
+        if (subscription.hasFallenBehind()) {
+            subscription.close();
+            emitter.complete();
+            return;
+        }
+        scheduled.set(false);
+        if (!subscription.isEmpty()) {
+            schedule();
+        }
+    }
+}
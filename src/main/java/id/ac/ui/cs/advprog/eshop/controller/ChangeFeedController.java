@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent events for each product and car that is created, updated or
+ * deleted, so a dashboard can patch its copy instead of reloading the list.
+ * Every event carries a token; a client that reconnects with the last one,
+ * as the Last-Event-ID header or the since parameter, receives the changes it
+ * missed, or a reset event when it has to reload.
+ *
+ * <p>Events are written on virtual threads of their own, not on Spring's
+ * shared task executor: a write to a slow client blocks its thread, and on the
+ * shared pool that would hold up the streamed downloads queued behind it.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api")
+public class ChangeFeedController {
+
+    private final ProductService productService;
+    private final CarService carService;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("change-feed-sse-", 0).factory());
+
+    public ChangeFeedController(ProductService productService, CarService carService) {
+        this.productService = productService;
+        this.carService = carService;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @GetMapping(path = "/products/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter productChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                     @RequestParam(required = false) String since) {
+        return ChangeEmitter.open(productService::subscribeToChanges, lastEventId != null ? lastEventId : since,
+                executor);
+    }
+
+    @GetMapping(path = "/cars/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter carChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                 @RequestParam(required = false) String since) {
+        return ChangeEmitter.open(carService::subscribeToChanges, lastEventId != null ? lastEventId : since,
+                executor);
+    }
+}
@@ -0,0 +1,43 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Instant;
+
+/**
+ * Conditional GET support for pages rendered from a versioned repository. The
+ * strong ETag pairs the repository version with the time this JVM started,
+ * since versions restart from zero with an in-memory catalog.
+ */
+final class ConditionalRequests {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private ConditionalRequests() {
+    }
+
+    // True when the client's copy is current; a 304 has then been prepared and nothing else needs to run
+    static boolean isNotModified(ServletWebRequest webRequest, Model model, long version, long lastModified) {
+        // Flash messages are part of the page but not of the version
+        if (model.containsAttribute("importMessage")) {
+            return false;
+        }
+        // Without this, browsers may reuse the page heuristically instead of revalidating
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader("Cache-Control", "no-cache");
+        }
+        return webRequest.checkNotModified(etag(version), lastModified);
+    }
+
+    // The same check for the reactive profile; the import message travels in the URL there
+    static boolean isNotModified(ServerWebExchange exchange, long version, long lastModified) {
+        exchange.getResponse().getHeaders().setCacheControl("no-cache");
+        return exchange.checkNotModified(etag(version), Instant.ofEpochMilli(lastModified));
+    }
+
+    private static String etag(long version) {
+        return "\"" + EPOCH + "-" + version + "\"";
+    }
+}
@@ -1,13 +1,26 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.service.CatalogAggregates;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @Controller
 public class HomeController {
 
+    // Products shown in the home page's most-stocked list
+    static final int TOP_PRODUCTS = 5;
+
+    private final CatalogAggregates aggregates;
+
+    public HomeController(CatalogAggregates aggregates) {
+        this.aggregates = aggregates;
+    }
+
     @GetMapping("/")
-    public String home() {
+    public String home(Model model) {
+        model.addAttribute("totals", aggregates.getTotals());
+        model.addAttribute("topProducts", aggregates.findTopProducts(TOP_PRODUCTS));
         return "Home";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * JSON API next to the HTML pages of {@link ProductController}. The list is
+ * streamed: products are read from the repository a page at a time and
+ * written straight to the response, so no full list or JSON string is built.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/products")
+public class ProductApiController {
+
+    // Products read from the repository per step while streaming the list
+    static final int STREAM_BATCH_SIZE = 500;
+
+    private final ProductService service;
+    private final ObjectMapper objectMapper;
+
+    public ProductApiController(ProductService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listProducts() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                // The servlet container owns the response stream
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeStartArray();
+                String cursor = null;
+                do {
+                    CursorPage<Product> page = service.findPage(cursor, STREAM_BATCH_SIZE);
+                    for (Product product : page.getItems()) {
+                        json.writeObject(product);
+                    }
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Below their reorder threshold, lowest stock first
+    @GetMapping("/low-stock")
+    public List<Product> lowStock() {
+        return service.findLowStock();
+    }
+
+    // Without a threshold the product goes back to the default one
+    @PutMapping("/{productId}/low-stock-threshold")
+    public ResponseEntity<Void> setLowStockThreshold(@PathVariable String productId,
+                                                     @RequestParam(required = false) Integer threshold) {
+        if (service.findById(productId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        service.setLowStockThreshold(productId, threshold);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<Product> getProduct(@PathVariable String productId) {
+        Product product = service.findById(productId);
+        return product == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(product);
+    }
+
+    @PostMapping
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+        // Creating over an existing id would silently replace that product
+        Product created = service.createIfAbsent(product);
+        if (created == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        URI location = UriComponentsBuilder.fromPath("/api/products/{productId}")
+                .buildAndExpand(created.getProductId()).encode().toUri();
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @PutMapping("/{productId}")
+    public ResponseEntity<Product> updateProduct(@PathVariable String productId, @RequestBody Product product) {
+        product.setProductId(productId);
+        Product updated = service.update(product);
+        return updated == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(updated);
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable String productId) {
+        if (service.findById(productId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        service.delete(productId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,17 +1,32 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiFunction;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/product")
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Rows read from the repository per flushed chunk when the whole list is streamed
+    static final int STREAM_BATCH_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final ProductService service;
 
     public ProductController(ProductService service) {
@@ -31,10 +46,68 @@ public class ProductController {
         return "redirect:list";
     }
 
+    // Multipart uploads are spooled to disk, so the CSV is read straight from the file
+    @PostMapping("/import")
+    public String importProductsPost(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("importMessage", "Choose a CSV file to import");
+            return "redirect:/product/list";
+        }
+        String message;
+        try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            message = "Imported " + service.importCsv(csv) + " products";
+        } catch (IllegalArgumentException | IOException e) {
+            message = "Import failed: " + e.getMessage();
+        }
+        redirectAttributes.addFlashAttribute("importMessage", message);
+        return "redirect:/product/list";
+    }
+
     @GetMapping("/list")
-    public String ProductListPage(Model model) {
-        List<Product> allProducts = service.findAll();
-        model.addAttribute("products", allProducts);
+    public String ProductListPage(@RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "20") int size,
+                                  @RequestParam(defaultValue = "false") boolean all,
+                                  @RequestParam(required = false) String sort,
+                                  @RequestParam(required = false) Integer minQuantity,
+                                  @RequestParam(required = false) Integer maxQuantity, Model model,
+                                  ServletWebRequest webRequest) {
+        // Answered before any product is read or the template rendered
+        if (ConditionalRequests.isNotModified(webRequest, model, service.getVersion(), service.getLastModified())) {
+            return null;
+        }
+        QuantityOrder order = QuantityOrder.from(sort, minQuantity, maxQuantity);
+        BiFunction<String, Integer, CursorPage<Product>> pages = service::findPage;
+        if (order != null) {
+            pages = (from, count) -> service.findPageByQuantity(order.min, order.max, order.descending, from, count);
+            order.addTo(model);
+        }
+        if (all) {
+            // Rows are read and flushed in chunks while the template renders
+            model.addAttribute("products", new StreamedRows<>(pages, STREAM_BATCH_SIZE, webRequest));
+            model.addAttribute("streaming", true);
+            return "ProductList";
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        CursorPage<Product> page;
+        try {
+            page = pages.apply(cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            // Tampered or stale cursor, start over from the first page
+            return "redirect:/product/list";
+        }
+        model.addAttribute("products", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", pageSize);
+        return "ProductList";
+    }
+
+    @GetMapping("/search")
+    public String searchProductPage(@RequestParam("q") String query,
+                                    @RequestParam(defaultValue = "contains") String mode, Model model) {
+        boolean prefixOnly = "prefix".equalsIgnoreCase(mode);
+        model.addAttribute("products", service.searchByName(query, prefixOnly, MAX_SEARCH_RESULTS));
+        model.addAttribute("query", query);
+        model.addAttribute("mode", prefixOnly ? "prefix" : "contains");
         return "ProductList";
     }
 
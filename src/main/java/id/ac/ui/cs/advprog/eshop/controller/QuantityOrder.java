@@ -0,0 +1,49 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import org.springframework.ui.Model;
+
+/**
+ * The sort and quantity-range options of the list pages. Without them a list
+ * keeps insertion order; with {@code sort=quantity}, {@code sort=-quantity},
+ * {@code minQuantity} or {@code maxQuantity} it is read from the repository's
+ * quantity index instead.
+ */
+final class QuantityOrder {
+
+    static final String ASCENDING = "quantity";
+    static final String DESCENDING = "-quantity";
+
+    final int min;
+    final int max;
+    final boolean descending;
+    private final Integer minQuantity;
+    private final Integer maxQuantity;
+
+    private QuantityOrder(Integer minQuantity, Integer maxQuantity, boolean descending) {
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+        this.min = minQuantity == null ? Integer.MIN_VALUE : minQuantity;
+        this.max = maxQuantity == null ? Integer.MAX_VALUE : maxQuantity;
+        this.descending = descending;
+    }
+
+    // Null when the page should stay in insertion order
+    static QuantityOrder from(String sort, Integer minQuantity, Integer maxQuantity) {
+        boolean descending = DESCENDING.equals(sort);
+        if (!descending && !ASCENDING.equals(sort) && minQuantity == null && maxQuantity == null) {
+            return null;
+        }
+        return new QuantityOrder(minQuantity, maxQuantity, descending);
+    }
+
+    // Carried into the sort, filter and paging links of the template
+    void addTo(Model model) {
+        model.addAttribute("sort", descending ? DESCENDING : ASCENDING);
+        if (minQuantity != null) {
+            model.addAttribute("minQuantity", minQuantity);
+        }
+        if (maxQuantity != null) {
+            model.addAttribute("maxQuantity", maxQuantity);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveCarService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+// CarApiController for the reactive profile, see ReactiveProductApiController
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/cars")
+public class ReactiveCarApiController {
+
+    private final ReactiveCarService service;
+
+    public ReactiveCarApiController(ReactiveCarService service) {
+        this.service = service;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Car> listCars() {
+        return service.findAll();
+    }
+
+    @GetMapping("/{carId}")
+    public Mono<ResponseEntity<Car>> getCar(@PathVariable String carId) {
+        return service.findById(carId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Car>> createCar(@RequestBody Car car) {
+        // Creating over an existing id would silently replace that car
+        return service.createIfAbsent(car).map(created -> {
+            URI location = UriComponentsBuilder.fromPath("/api/cars/{carId}")
+                    .buildAndExpand(created.getCarId()).encode().toUri();
+            return ResponseEntity.created(location).body(created);
+        }).defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @PutMapping("/{carId}")
+    public Mono<ResponseEntity<Car>> updateCar(@PathVariable String carId, @RequestBody Car car) {
+        car.setCarId(carId);
+        return service.findById(carId)
+                .flatMap(existing -> service.update(carId, car).thenReturn(ResponseEntity.ok(car)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{carId}")
+    public Mono<ResponseEntity<Void>> deleteCar(@PathVariable String carId) {
+        return service.findById(carId)
+                .flatMap(car -> service.deleteCarById(carId).thenReturn(ResponseEntity.noContent().<Void>build()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
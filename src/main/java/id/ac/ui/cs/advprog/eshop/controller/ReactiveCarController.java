@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveCarService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
+import reactor.core.publisher.Mono;
+
+// The pages of CarController for the reactive profile, see ReactiveProductController
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/car")
+public class ReactiveCarController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Rows Thymeleaf renders and flushes per chunk when the whole list is streamed
+    static final int STREAM_CHUNK_SIZE = 500;
+
+    private final ReactiveCarService carservice;
+
+    public ReactiveCarController(ReactiveCarService carService) {
+        this.carservice = carService;
+    }
+
+    @GetMapping("/createCar")
+    public String createCarPage(Model model) {
+        model.addAttribute("car", new Car());
+        return "createCar";
+    }
+
+    @PostMapping("/createCar")
+    public Mono<String> createCarPost(@ModelAttribute Car car) {
+        return carservice.create(car).thenReturn("redirect:/car/listCar");
+    }
+
+    @PostMapping("/importCar")
+    public Mono<String> importCarsPost(@RequestPart("file") FilePart file) {
+        return ReactiveUploads.importCsv(file, carservice::importCsv, "/car/listCar", "cars");
+    }
+
+    @GetMapping("/listCar")
+    public Mono<String> carListPage(@RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(defaultValue = "false") boolean all,
+                                    @RequestParam(required = false) String sort,
+                                    @RequestParam(required = false) Integer minQuantity,
+                                    @RequestParam(required = false) Integer maxQuantity,
+                                    @RequestParam(required = false) String importMessage,
+                                    Model model, ServerWebExchange exchange) {
+        // Answered before any car is read or the template rendered
+        if (ConditionalRequests.isNotModified(exchange, carservice.getVersion(), carservice.getLastModified())) {
+            return null;
+        }
+        if (importMessage != null) {
+            model.addAttribute("importMessage", importMessage);
+        }
+        QuantityOrder order = QuantityOrder.from(sort, minQuantity, maxQuantity);
+        if (order != null) {
+            order.addTo(model);
+        }
+        if (all) {
+            // Rendered and flushed a chunk at a time as the repository emits rows
+            model.addAttribute("cars", new ReactiveDataDriverContextVariable(order == null ? carservice.findAll()
+                    : carservice.findAllByQuantity(order.min, order.max, order.descending), STREAM_CHUNK_SIZE));
+            model.addAttribute("streaming", true);
+            return Mono.just("carList");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return (order == null ? carservice.findPage(cursor, pageSize)
+                : carservice.findPageByQuantity(order.min, order.max, order.descending, cursor, pageSize))
+                .map(page -> {
+                    model.addAttribute("cars", page.getItems());
+                    if (page.getNextCursor() != null) {
+                        model.addAttribute("nextCursor", page.getNextCursor());
+                    }
+                    model.addAttribute("pageSize", pageSize);
+                    return "carList";
+                })
+                // Tampered or stale cursor, start over from the first page
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just("redirect:/car/listCar"));
+    }
+
+    @GetMapping("/editCar/{carId}")
+    public Mono<String> editCarPage(@PathVariable String carId, Model model) {
+        return carservice.findById(carId)
+                .map(car -> {
+                    model.addAttribute("car", car);
+                    return "editCar";
+                })
+                .defaultIfEmpty("redirect:/car/listCar");
+    }
+
+    @PostMapping("/editCar")
+    public Mono<String> editCarPost(@ModelAttribute Car car) {
+        return carservice.update(car.getCarId(), car).thenReturn("redirect:/car/listCar");
+    }
+
+    // WebFlux binds @RequestParam to the query string only, so the form field is read from the body
+    @PostMapping("/deleteCar")
+    public Mono<String> deleteCar(ServerWebExchange exchange) {
+        return exchange.getFormData()
+                .mapNotNull(form -> form.getFirst("carId"))
+                .flatMap(carservice::deleteCarById)
+                .thenReturn("redirect:/car/listCar");
+    }
+}
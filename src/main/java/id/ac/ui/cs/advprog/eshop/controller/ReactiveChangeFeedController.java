@@ -0,0 +1,56 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.ChangeEvent;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveCarService;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+
+/**
+ * {@link ChangeFeedController} for the reactive profile. Changes are taken
+ * from the subscription only as the response is written, so a slow reader
+ * leaves them coalescing in its buffer.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+public class ReactiveChangeFeedController {
+
+    private final ReactiveProductService productService;
+    private final ReactiveCarService carService;
+
+    public ReactiveChangeFeedController(ReactiveProductService productService, ReactiveCarService carService) {
+        this.productService = productService;
+        this.carService = carService;
+    }
+
+    @GetMapping(path = "/products/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEvent<?>>> productChanges(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        return productService.changes(lastEventId != null ? lastEventId : since).map(this::toEvent);
+    }
+
+    @GetMapping(path = "/cars/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEvent<?>>> carChanges(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        return carService.changes(lastEventId != null ? lastEventId : since).map(this::toEvent);
+    }
+
+    private ServerSentEvent<ChangeEvent<?>> toEvent(ChangeEvent<?> change) {
+        return ServerSentEvent.<ChangeEvent<?>>builder(change)
+                .id(change.getToken())
+                .event(change.getType().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * {@link ProductApiController} for the reactive profile. The list is encoded
+ * element by element as the service emits it, so a slow reader applies
+ * backpressure all the way to the repository instead of tying up a thread.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/products")
+public class ReactiveProductApiController {
+
+    private final ReactiveProductService service;
+
+    public ReactiveProductApiController(ReactiveProductService service) {
+        this.service = service;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Product> listProducts() {
+        return service.findAll();
+    }
+
+    @GetMapping("/{productId}")
+    public Mono<ResponseEntity<Product>> getProduct(@PathVariable String productId) {
+        return service.findById(productId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> createProduct(@RequestBody Product product) {
+        // Creating over an existing id would silently replace that product
+        return service.createIfAbsent(product).map(created -> {
+            URI location = UriComponentsBuilder.fromPath("/api/products/{productId}")
+                    .buildAndExpand(created.getProductId()).encode().toUri();
+            return ResponseEntity.created(location).body(created);
+        }).defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @PutMapping("/{productId}")
+    public Mono<ResponseEntity<Product>> updateProduct(@PathVariable String productId, @RequestBody Product product) {
+        product.setProductId(productId);
+        return service.update(product)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{productId}")
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable String productId) {
+        return service.findById(productId)
+                .flatMap(product -> service.delete(productId).thenReturn(ResponseEntity.noContent().<Void>build()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
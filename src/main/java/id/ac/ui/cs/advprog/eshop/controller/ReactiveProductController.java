@@ -0,0 +1,125 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
+import reactor.core.publisher.Mono;
+
+/**
+ * The pages of {@link ProductController} for the reactive profile, served from
+ * an event loop. Handlers only compose the non-blocking service and leave
+ * rendering to Thymeleaf's reactive view.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/product")
+public class ReactiveProductController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    // Rows Thymeleaf renders and flushes per chunk when the whole list is streamed
+    static final int STREAM_CHUNK_SIZE = 500;
+
+    private final ReactiveProductService service;
+
+    public ReactiveProductController(ReactiveProductService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/create")
+    public String createProductPage(Model model) {
+        model.addAttribute("product", new Product());
+        return "CreateProduct";
+    }
+
+    @PostMapping("/create")
+    public Mono<String> createProductPost(@ModelAttribute Product product) {
+        return service.create(product).thenReturn("redirect:/product/list");
+    }
+
+    @PostMapping("/import")
+    public Mono<String> importProductsPost(@RequestPart("file") FilePart file) {
+        return ReactiveUploads.importCsv(file, service::importCsv, "/product/list", "products");
+    }
+
+    @GetMapping("/list")
+    public Mono<String> productListPage(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int size,
+                                        @RequestParam(defaultValue = "false") boolean all,
+                                        @RequestParam(required = false) String sort,
+                                        @RequestParam(required = false) Integer minQuantity,
+                                        @RequestParam(required = false) Integer maxQuantity,
+                                        @RequestParam(required = false) String importMessage,
+                                        Model model, ServerWebExchange exchange) {
+        // Answered before any product is read or the template rendered
+        if (ConditionalRequests.isNotModified(exchange, service.getVersion(), service.getLastModified())) {
+            return null;
+        }
+        if (importMessage != null) {
+            model.addAttribute("importMessage", importMessage);
+        }
+        QuantityOrder order = QuantityOrder.from(sort, minQuantity, maxQuantity);
+        if (order != null) {
+            order.addTo(model);
+        }
+        if (all) {
+            // Rendered and flushed a chunk at a time as the repository emits rows
+            model.addAttribute("products", new ReactiveDataDriverContextVariable(order == null ? service.findAll()
+                    : service.findAllByQuantity(order.min, order.max, order.descending), STREAM_CHUNK_SIZE));
+            model.addAttribute("streaming", true);
+            return Mono.just("ProductList");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return (order == null ? service.findPage(cursor, pageSize)
+                : service.findPageByQuantity(order.min, order.max, order.descending, cursor, pageSize))
+                .map(page -> {
+                    model.addAttribute("products", page.getItems());
+                    if (page.getNextCursor() != null) {
+                        model.addAttribute("nextCursor", page.getNextCursor());
+                    }
+                    model.addAttribute("pageSize", pageSize);
+                    return "ProductList";
+                })
+                // Tampered or stale cursor, start over from the first page
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just("redirect:/product/list"));
+    }
+
+    @GetMapping("/search")
+    public Mono<String> searchProductPage(@RequestParam("q") String query,
+                                          @RequestParam(defaultValue = "contains") String mode, Model model) {
+        boolean prefixOnly = "prefix".equalsIgnoreCase(mode);
+        return service.searchByName(query, prefixOnly, MAX_SEARCH_RESULTS).collectList()
+                .map(products -> {
+                    model.addAttribute("products", products);
+                    model.addAttribute("query", query);
+                    model.addAttribute("mode", prefixOnly ? "prefix" : "contains");
+                    return "ProductList";
+                });
+    }
+
+    @GetMapping("/edit/{productId}")
+    public Mono<String> editProductPage(@PathVariable String productId, Model model) {
+        return service.findById(productId)
+                .map(product -> {
+                    model.addAttribute("product", product);
+                    return "editProduct";
+                })
+                .defaultIfEmpty("redirect:/product/list");
+    }
+
+    @PostMapping("/edit")
+    public Mono<String> editProductPost(@ModelAttribute Product product) {
+        return service.update(product).thenReturn("redirect:/product/list");
+    }
+
+    @GetMapping("/delete/{productId}")
+    public Mono<String> deleteProduct(@PathVariable String productId) {
+        return service.delete(productId).thenReturn("redirect:/product/list");
+    }
+}
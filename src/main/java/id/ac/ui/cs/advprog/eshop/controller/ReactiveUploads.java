@@ -0,0 +1,45 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+// CSV upload handling shared by the reactive page controllers
+final class ReactiveUploads {
+
+    private ReactiveUploads() {
+    }
+
+    /**
+     * Spools the upload to a temp file without buffering it in memory, runs the
+     * import on it and redirects to the list page with the outcome in the URL,
+     * as WebFlux has no flash attributes.
+     */
+    static Mono<String> importCsv(FilePart file, Function<Path, Mono<Integer>> importer,
+                                  String listPath, String itemName) {
+        return Mono.using(
+                        () -> Files.createTempFile("eshop-import-", ".csv"),
+                        csv -> file.transferTo(csv).then(importer.apply(csv)),
+                        ReactiveUploads::deleteQuietly)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(count -> "Imported " + count + " " + itemName)
+                .onErrorResume(e -> e instanceof IllegalArgumentException || e instanceof IOException,
+                        e -> Mono.just("Import failed: " + e.getMessage()))
+                .map(message -> "redirect:" + UriComponentsBuilder.fromPath(listPath)
+                        .queryParam("importMessage", message).build().encode().toUriString());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the OS to clean up with the rest of the temp directory
+        }
+    }
+}
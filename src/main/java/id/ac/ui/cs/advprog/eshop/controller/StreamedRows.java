@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Table rows for a list template that are read a batch at a time while the
+ * template iterates over them. Before each batch is read, everything rendered
+ * so far is flushed to the client, so the page head and the earlier rows
+ * arrive while later rows are still being read, and only one batch is held.
+ */
+final class StreamedRows<T> implements Iterable<T> {
+
+    private final BiFunction<String, Integer, CursorPage<T>> pages;
+    private final int batchSize;
+    private final ServletWebRequest webRequest;
+
+    StreamedRows(BiFunction<String, Integer, CursorPage<T>> pages, int batchSize, ServletWebRequest webRequest) {
+        this.pages = pages;
+        this.batchSize = batchSize;
+        this.webRequest = webRequest;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Iterator<T> batch = Collections.emptyIterator();
+            private String cursor;
+            private boolean lastBatch;
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && !lastBatch) {
+                    flush();
+                    CursorPage<T> page = pages.apply(cursor, batchSize);
+                    batch = page.getItems().iterator();
+                    cursor = page.getNextCursor();
+                    lastBatch = cursor == null;
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+    }
+
+    private void flush() {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response == null) {
+            return;
+        }
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            // The client went away, stop reading rows nobody will receive
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IRepository;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Dataset sizes and product cache counters, read from the components when a
+ * registry scrapes them rather than updated on every operation. The cache
+ * meters follow Micrometer's cache naming, so stock dashboards pick them up.
+ */
+public class CatalogMetrics implements MeterBinder {
+
+    private final IProductRepository productRepository;
+    private final ICarRepository carRepository;
+    private final ProductService productService;
+
+    public CatalogMetrics(IProductRepository productRepository, ICarRepository carRepository,
+                          ProductService productService) {
+        this.productRepository = productRepository;
+        this.carRepository = carRepository;
+        this.productService = productService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("eshop.repository.size", productRepository, IRepository::count)
+                .description("Items currently stored")
+                .tag("repository", "product")
+                .register(registry);
+        Gauge.builder("eshop.repository.size", carRepository, IRepository::count)
+                .description("Items currently stored")
+                .tag("repository", "car")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", productService, service -> service.getCacheStats().getHits())
+                .description("Cache lookups that found a live entry")
+                .tags("cache", "products", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", productService, service -> service.getCacheStats().getMisses())
+                .description("Cache lookups that went to the repository")
+                .tags("cache", "products", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", productService, service -> service.getCacheStats().getEvictions())
+                .description("Entries dropped to stay within the size bound")
+                .tag("cache", "products")
+                .register(registry);
+        Gauge.builder("cache.size", productService, service -> service.getCacheStats().getSize())
+                .description("Entries currently cached")
+                .tag("cache", "products")
+                .register(registry);
+    }
+}
@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Repository and service metrics, published through Actuator's metrics and Prometheus endpoints
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "eshop.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfiguration {
+
+    // Static, so the post-processor is registered without creating this configuration early
+    @Bean
+    public static OperationMetricsPostProcessor operationMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new OperationMetricsPostProcessor(registry);
+    }
+
+    @Bean
+    public CatalogMetrics catalogMetrics(IProductRepository productRepository, ICarRepository carRepository,
+                                         ProductService productService) {
+        return new CatalogMetrics(productRepository, carRepository, productService);
+    }
+}
@@ -0,0 +1,55 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Puts a {@link TimedInvocationHandler} in front of the repository and service
+ * beans, whichever storage engine is active. Everything injects them by
+ * interface, so an interface proxy is enough and the engines stay unaware of
+ * metrics.
+ */
+public class OperationMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public OperationMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof IProductRepository) {
+            return instrument(bean, "eshop.repository", "repository", "product");
+        }
+        if (bean instanceof ICarRepository) {
+            return instrument(bean, "eshop.repository", "repository", "car");
+        }
+        if (bean instanceof ProductService) {
+            return instrument(bean, "eshop.service", "service", "product");
+        }
+        if (bean instanceof CarService) {
+            return instrument(bean, "eshop.service", "service", "car");
+        }
+        return bean;
+    }
+
+    static Object instrument(Object bean, MeterRegistry meterRegistry, String prefix, String tagName, String tagValue) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(bean.getClass(), bean.getClass().getClassLoader());
+        TimedInvocationHandler handler = new TimedInvocationHandler(bean, interfaces, meterRegistry, prefix, tagName, tagValue);
+        return Proxy.newProxyInstance(bean.getClass().getClassLoader(), interfaces, handler);
+    }
+
+    private Object instrument(Object bean, String prefix, String tagName, String tagValue) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        return meterRegistry == null ? bean : instrument(bean, meterRegistry, prefix, tagName, tagValue);
+    }
+}
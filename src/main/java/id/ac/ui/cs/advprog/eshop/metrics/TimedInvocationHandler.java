@@ -0,0 +1,110 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call made through an interface of the target and counts calls
+ * that came back with nothing. Meters are created up front, one per method,
+ * so a call only pays for a map lookup, two clock reads and the recording.
+ */
+final class TimedInvocationHandler implements InvocationHandler {
+
+    // Bookkeeping calls made on every request or by the gauges themselves
+    private static final Set<String> UNTIMED = Set.of(
+            "addListener", "addLowStockListener", "subscribeToChanges", "count", "getVersion", "getLastModified",
+            "getCacheStats", "markReadOnly");
+
+    private final Object target;
+    private final Map<Method, Meters> meters = new HashMap<>();
+
+    /**
+     * @param prefix  meter name prefix, such as {@code eshop.repository}
+     * @param tagName tag naming the instrumented component, such as {@code repository}
+     * @param tagValue which component this is, such as {@code product}
+     */
+    TimedInvocationHandler(Object target, Class<?>[] interfaces, MeterRegistry registry,
+                           String prefix, String tagName, String tagValue) {
+        this.target = target;
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                if (UNTIMED.contains(method.getName()) || meters.containsKey(method)) {
+                    continue;
+                }
+                Timer timer = Timer.builder(prefix + ".invocations")
+                        .description("Time spent in each operation")
+                        .tag(tagName, tagValue)
+                        .tag("method", method.getName())
+                        .publishPercentileHistogram()
+                        // In-memory reads finish in well under a millisecond, the default lowest bucket
+                        .minimumExpectedValue(Duration.ofNanos(500))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry);
+                Counter notFound = returnsSingleItem(method)
+                        ? Counter.builder(prefix + ".not.found")
+                                 .description("Operations that found no item for the id given")
+                                 .tag(tagName, tagValue)
+                                 .tag("method", method.getName())
+                                 .register(registry)
+                        : null;
+                meters.put(method, new Meters(timer, notFound));
+            }
+        }
+    }
+
+    // Lookups and writes by id answer null when the id is unknown
+    private static boolean returnsSingleItem(Method method) {
+        Class<?> type = method.getReturnType();
+        return !type.isPrimitive() && !Iterable.class.isAssignableFrom(type) && type != CursorPage.class;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Meters methodMeters = meters.get(method);
+        if (methodMeters == null) {
+            if (method.getDeclaringClass() == Object.class && method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            return call(method, args);
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = call(method, args);
+            if (result == null && methodMeters.notFound != null) {
+                methodMeters.notFound.increment();
+            }
+            return result;
+        } finally {
+            methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Meters {
+        final Timer timer;
+        final Counter notFound;
+
+        Meters(Timer timer, Counter notFound) {
+            this.timer = timer;
+            this.notFound = notFound;
+        }
+    }
+}
@@ -8,4 +8,14 @@ public class Car {
     private String carName;
     private String carColor;
     private int carQuantity;
+
+    // A detached copy, for stores and caches that must not share their own instance
+    public Car copy() {
+        Car copy = new Car();
+        copy.carId = carId;
+        copy.carName = carName;
+        copy.carColor = carColor;
+        copy.carQuantity = carQuantity;
+        return copy;
+    }
 }
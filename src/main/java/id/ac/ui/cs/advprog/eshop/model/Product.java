@@ -8,4 +8,13 @@ public class Product {
     private String productId;
     private String productName;
     private int productQuantity;
+
+    // A detached copy, for stores and caches that must not share their own instance
+    public Product copy() {
+        Product copy = new Product();
+        copy.productId = productId;
+        copy.productName = productName;
+        copy.productQuantity = productQuantity;
+        return copy;
+    }
 }
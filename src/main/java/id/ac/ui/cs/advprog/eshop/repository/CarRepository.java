@@ -1,51 +1,110 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Repository;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
+// The columnar engine only covers products, so cars stay in memory there too
+@ConditionalOnExpression("'${eshop.repository.storage:memory}' != 'mapped'")
 public class CarRepository implements ICarRepository {
 
-    private final List<Car> carData = new ArrayList<>();
+    private final IndexedStore<Car> store;
+
+    private final QuantityIndex<Car> quantityIndex = new QuantityIndex<>(this::findById, Car::getCarQuantity);
+
+    // Outside Spring, e.g. in tests, ids come from a generator of its own
+    public CarRepository() {
+        this(new TimeOrderedIdGenerator());
+    }
+
+    @Autowired
+    public CarRepository(IdGenerator idGenerator) {
+        this.store = new IndexedStore<>(Car::getCarId, Car::setCarId, idGenerator::nextId, Car::copy);
+        // Registered first, so the index is current before any other listener hears of a change
+        store.addListener((id, previous, current, version) -> quantityIndex.reindex(id));
+    }
 
     @Override
     public Car create(Car car) {
-        if (car.getCarId() == null) {
-            car.setCarId(UUID.randomUUID().toString());
-        }
-        carData.add(car);
-        return car;
+        return store.create(car);
+    }
+
+    @Override
+    public Car createIfAbsent(Car car) {
+        return store.createIfAbsent(car);
     }
 
     @Override
     public List<Car> findAll() {  
-        return new ArrayList<>(carData);
+        return store.findAll();
+    }
+
+    @Override
+    public void forEachItem(Consumer<? super Car> visitor) {
+        store.forEachItem(visitor);
     }
 
     @Override
     public Car findById(String id) {
-        return carData.stream()
-                      .filter(car -> car.getCarId().equals(id))
-                      .findFirst()
-                      .orElse(null);
+        return store.findById(id);
     }
 
     @Override
     public Car update(Car updatedCar) {  
-        for (int i = 0; i < carData.size(); i++) {
-            if (carData.get(i).getCarId().equals(updatedCar.getCarId())) {
-                carData.set(i, updatedCar);
-                return updatedCar;
-            }
-        }
-        return null;
+        return store.update(updatedCar);
     }
 
     @Override
     public void delete(String id) {
-        carData.removeIf(car -> car.getCarId().equals(id));
+        store.delete(id);
+    }
+
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        return store.createAll(cars);
+    }
+
+    @Override
+    public List<Car> updateAll(List<Car> cars) {
+        return store.updateAll(cars);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        store.deleteAll(ids);
+    }
+
+    @Override
+    public CursorPage<Car> findPage(String cursor, int size) {
+        return store.findPage(cursor, size);
+    }
+
+    @Override
+    public CursorPage<Car> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return quantityIndex.findPage(min, max, descending, cursor, size);
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public int count() {
+        return store.count();
+    }
+
+    @Override
+    public void addListener(RepositoryListener<Car> listener) {
+        store.addListener(listener);
+    }
+
+    @Override
+    public void markReadOnly(Exception cause) {
+        store.markReadOnly(cause);
     }
 }
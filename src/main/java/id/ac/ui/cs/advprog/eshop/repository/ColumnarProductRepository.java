@@ -0,0 +1,683 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Compact {@link IProductRepository} that stores products column by column in
+ * primitive arrays instead of one object graph per product. UUID ids are kept
+ * as two {@code long}s, quantities in an {@code int[]} and names as UTF-8 in a
+ * shared byte arena. {@link Product} objects are only built when a caller asks
+ * for them. Enabled with {@code eshop.repository.storage=columnar}.
+ *
+ * <p>Ids that are not canonical UUIDs still work but are kept as strings in a
+ * side map. Name searches scan the arena instead of keeping a heap-resident
+ * index, which would cost more memory than the columns themselves. Ordering
+ * by quantity does need an index, so rows are kept sorted by quantity and id
+ * in a {@link SortedRows} of row numbers, a few bytes per row.
+ */
+@Repository
+@ConditionalOnProperty(name = "eshop.repository.storage", havingValue = "columnar")
+public class ColumnarProductRepository implements IProductRepository {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte DELETED = 0;
+    private static final byte UUID_ID = 1;
+    private static final byte CUSTOM_ID = 2;
+    private static final int NULL_NAME = -1;
+
+    private final IdGenerator idGenerator;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<RepositoryListener<Product>> listeners = new CopyOnWriteArrayList<>();
+    private final WriteGuard writeGuard = new WriteGuard();
+
+    // Row-aligned columns; rows are appended in insertion order and compacted once half are deleted
+    private byte[] state = new byte[INITIAL_CAPACITY];
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+    private int rowCount;
+    private int liveRows;
+
+    private byte[] nameArena = new byte[INITIAL_CAPACITY * 16];
+    private int arenaSize;
+    private int arenaGarbage;
+
+    // Open-addressing table of row + 1 for UUID ids, 0 marks an empty bucket
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int tableSize;
+
+    private final Map<String, Integer> customRows = new HashMap<>();
+    private final Map<Integer, String> customIds = new HashMap<>();
+
+    // Names are scanned column-wise, but ordering by quantity would mean sorting every row per query
+    private final SortedRows byQuantity = new SortedRows(this::compareByQuantity);
+
+    private long lastSequence;
+    private volatile long version;
+
+    // Outside Spring, e.g. in tests, ids come from a generator of its own
+    public ColumnarProductRepository() {
+        this(new TimeOrderedIdGenerator());
+    }
+
+    @Autowired
+    public ColumnarProductRepository(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Product create(Product product) {
+        createAll(List.of(product));
+        return product;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Product> products = new ArrayList<>(liveRows);
+            for (int row = 0; row < rowCount; row++) {
+                if (state[row] != DELETED) {
+                    products.add(materialize(row));
+                }
+            }
+            return Collections.unmodifiableList(products);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rows are materialized on every read anyway; the visitor runs after the lock is released
+    @Override
+    public void forEachItem(Consumer<? super Product> visitor) {
+        findAll().forEach(visitor);
+    }
+
+    @Override
+    public Product findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = findRow(id);
+            return row < 0 ? null : materialize(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CursorPage<Product> findPage(String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        long after = CursorPage.decode(cursor);
+        lock.readLock().lock();
+        try {
+            int row = Arrays.binarySearch(sequences, 0, rowCount, after);
+            row = row >= 0 ? row + 1 : -row - 1;
+            List<Product> items = new ArrayList<>(Math.min(size, liveRows));
+            long last = after;
+            for (; row < rowCount && items.size() < size; row++) {
+                if (state[row] != DELETED) {
+                    items.add(materialize(row));
+                    last = sequences[row];
+                }
+            }
+            while (row < rowCount && state[row] == DELETED) {
+                row++;
+            }
+            return new CursorPage<>(items, row < rowCount ? CursorPage.encode(last) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Product update(Product updatedProduct) {
+        return updateAll(List.of(updatedProduct)).isEmpty() ? null : updatedProduct;
+    }
+
+    @Override
+    public void delete(String id) {
+        deleteAll(Collections.singletonList(id));
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        for (Product product : products) {
+            if (product.getProductId() == null || product.getProductId().isEmpty()) {
+                product.setProductId(idGenerator.nextId());
+            }
+        }
+        List<RepositoryChange<Product>> changes = new ArrayList<>(products.size());
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                Product previous = null;
+                int row = findRow(product.getProductId());
+                if (row >= 0) {
+                    previous = materialize(row);
+                    writeFields(row, product);
+                } else {
+                    appendRow(product);
+                }
+                changes.add(new RepositoryChange<>(product.getProductId(), previous, product, ++version));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, changes);
+        return products;
+    }
+
+    @Override
+    public Product createIfAbsent(Product product) {
+        if (product.getProductId() == null || product.getProductId().isEmpty()) {
+            product.setProductId(idGenerator.nextId());
+        }
+        long newVersion;
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            if (findRow(product.getProductId()) >= 0) {
+                return null;
+            }
+            appendRow(product);
+            newVersion = ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners,
+                List.of(new RepositoryChange<>(product.getProductId(), null, product, newVersion)));
+        return product;
+    }
+
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        List<RepositoryChange<Product>> changes = new ArrayList<>(products.size());
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                String id = product.getProductId();
+                int row = id == null ? -1 : findRow(id);
+                if (row >= 0) {
+                    Product previous = materialize(row);
+                    writeFields(row, product);
+                    changes.add(new RepositoryChange<>(id, previous, product, ++version));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, changes);
+        List<Product> updated = new ArrayList<>(changes.size());
+        for (RepositoryChange<Product> change : changes) {
+            updated.add(change.current);
+        }
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        List<RepositoryChange<Product>> changes = new ArrayList<>(ids.size());
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                int row = id == null ? -1 : findRow(id);
+                if (row >= 0) {
+                    Product previous = materialize(row);
+                    removeRow(row);
+                    changes.add(new RepositoryChange<>(id, previous, null, ++version));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, changes);
+    }
+
+    @Override
+    public Product adjustQuantity(String id, int delta) {
+        if (id == null) {
+            return null;
+        }
+        Product previous;
+        Product current;
+        long newVersion;
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            int row = findRow(id);
+            long quantity = row < 0 ? -1 : (long) quantities[row] + delta;
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return null;
+            }
+            previous = materialize(row);
+            setQuantity(row, (int) quantity);
+            current = materialize(row);
+            newVersion = ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, List.of(new RepositoryChange<>(id, previous, current, newVersion)));
+        return current;
+    }
+
+    @Override
+    public List<Product> adjustQuantities(Map<String, Integer> deltas) {
+        List<String> ids = new ArrayList<>(deltas.keySet());
+        List<RepositoryChange<Product>> changes = new ArrayList<>(ids.size());
+        List<Product> adjusted = new ArrayList<>(ids.size());
+        writeGuard.check();
+        lock.writeLock().lock();
+        try {
+            // Every row is checked before the first one changes
+            int[] rows = new int[ids.size()];
+            int[] adjustedQuantities = new int[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                rows[i] = ids.get(i) == null ? -1 : findRow(ids.get(i));
+                long quantity = rows[i] < 0 ? -1 : (long) quantities[rows[i]] + deltas.get(ids.get(i));
+                if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                    return null;
+                }
+                adjustedQuantities[i] = (int) quantity;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                Product previous = materialize(rows[i]);
+                setQuantity(rows[i], adjustedQuantities[i]);
+                Product current = materialize(rows[i]);
+                adjusted.add(current);
+                changes.add(new RepositoryChange<>(ids.get(i), previous, current, ++version));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, changes);
+        return adjusted;
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        return scanNames(prefix, limit, true);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String text, int limit) {
+        return scanNames(text, limit, false);
+    }
+
+    @Override
+    public CursorPage<Product> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        List<Product> items = new ArrayList<>(Math.min(size, 64));
+        if (min > max) {
+            return new CursorPage<>(items, null);
+        }
+        QuantityIndex.Key after = QuantityIndex.decode(cursor);
+        lock.readLock().lock();
+        try {
+            int position;
+            if (descending) {
+                position = after != null && after.quantity <= max
+                        ? byQuantity.lastBefore(row -> compareToKey(row, after.quantity, after.id) >= 0)
+                        : byQuantity.lastBefore(row -> quantities[row] > max);
+            } else {
+                position = after != null && after.quantity >= min
+                        ? byQuantity.first(row -> compareToKey(row, after.quantity, after.id) > 0)
+                        : byQuantity.first(row -> quantities[row] >= min);
+            }
+            Product last = null;
+            while (position != SortedRows.NONE) {
+                int row = byQuantity.row(position);
+                if (quantities[row] < min || quantities[row] > max) {
+                    break;
+                }
+                if (items.size() == size) {
+                    return new CursorPage<>(items, QuantityIndex.encode(last.getProductQuantity(), last.getProductId()));
+                }
+                last = materialize(row);
+                items.add(last);
+                position = descending ? byQuantity.previous(position) : byQuantity.next(position);
+            }
+            return new CursorPage<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addListener(RepositoryListener<Product> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void markReadOnly(Exception cause) {
+        writeGuard.markReadOnly(cause);
+    }
+
+    private List<Product> scanNames(String query, int limit, boolean prefixOnly) {
+        List<Product> result = new ArrayList<>();
+        if (query == null || query.isBlank()) {
+            return result;
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < rowCount && result.size() < limit; row++) {
+                if (state[row] == DELETED || nameLengths[row] == NULL_NAME) {
+                    continue;
+                }
+                String name = readName(row).toLowerCase(Locale.ROOT);
+                if (prefixOnly ? name.startsWith(normalized) : name.contains(normalized)) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the lock for everything below
+
+    private Product materialize(int row) {
+        Product product = new Product();
+        product.setProductId(idOf(row));
+        product.setProductName(nameLengths[row] == NULL_NAME ? null : readName(row));
+        product.setProductQuantity(quantities[row]);
+        return product;
+    }
+
+    private String idOf(int row) {
+        return state[row] == UUID_ID ? new UUID(idHigh[row], idLow[row]).toString() : customIds.get(row);
+    }
+
+    // Quantity, then id as a string; canonical UUIDs compare the same as their two longs, unsigned
+    private int compareByQuantity(int row, int other) {
+        int byQuantity = Integer.compare(quantities[row], quantities[other]);
+        if (byQuantity != 0) {
+            return byQuantity;
+        }
+        if (state[row] == UUID_ID && state[other] == UUID_ID) {
+            int byHigh = Long.compareUnsigned(idHigh[row], idHigh[other]);
+            return byHigh != 0 ? byHigh : Long.compareUnsigned(idLow[row], idLow[other]);
+        }
+        return idOf(row).compareTo(idOf(other));
+    }
+
+    // A null id stands for a key below every id of its quantity, as in QuantityIndex
+    private int compareToKey(int row, long quantity, String id) {
+        int byQuantity = Long.compare(quantities[row], quantity);
+        if (byQuantity != 0) {
+            return byQuantity;
+        }
+        return id == null ? 1 : idOf(row).compareTo(id);
+    }
+
+    private String readName(int row) {
+        return new String(nameArena, nameOffsets[row], nameLengths[row], StandardCharsets.UTF_8);
+    }
+
+    private int findRow(String id) {
+        UUID uuid = parseCanonicalUuid(id);
+        if (uuid == null) {
+            Integer row = customRows.get(id);
+            return row == null ? -1 : row;
+        }
+        long high = uuid.getMostSignificantBits();
+        long low = uuid.getLeastSignificantBits();
+        int mask = table.length - 1;
+        for (int bucket = bucketOf(high, low); table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int row = table[bucket] - 1;
+            if (idHigh[row] == high && idLow[row] == low) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void appendRow(Product product) {
+        if (rowCount == state.length) {
+            growRows();
+        }
+        int row = rowCount++;
+        liveRows++;
+        sequences[row] = ++lastSequence;
+        UUID uuid = parseCanonicalUuid(product.getProductId());
+        if (uuid == null) {
+            state[row] = CUSTOM_ID;
+            customRows.put(product.getProductId(), row);
+            customIds.put(row, product.getProductId());
+        } else {
+            state[row] = UUID_ID;
+            idHigh[row] = uuid.getMostSignificantBits();
+            idLow[row] = uuid.getLeastSignificantBits();
+            insertIntoTable(row);
+        }
+        quantities[row] = product.getProductQuantity();
+        byQuantity.insert(row);
+        nameLengths[row] = NULL_NAME;
+        writeFields(row, product);
+    }
+
+    private void writeFields(int row, Product product) {
+        setQuantity(row, product.getProductQuantity());
+        if (nameLengths[row] != NULL_NAME) {
+            arenaGarbage += nameLengths[row];
+            nameLengths[row] = NULL_NAME;
+        }
+        String name = product.getProductName();
+        if (name == null) {
+            return;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + bytes.length > nameArena.length) {
+            growArena(bytes.length);
+        }
+        System.arraycopy(bytes, 0, nameArena, arenaSize, bytes.length);
+        nameOffsets[row] = arenaSize;
+        nameLengths[row] = bytes.length;
+        arenaSize += bytes.length;
+    }
+
+    // The row leaves the quantity index before its sort key changes and rejoins after
+    private void setQuantity(int row, int quantity) {
+        if (quantities[row] != quantity) {
+            byQuantity.remove(row);
+            quantities[row] = quantity;
+            byQuantity.insert(row);
+        }
+    }
+
+    private void removeRow(int row) {
+        byQuantity.remove(row);
+        if (state[row] == UUID_ID) {
+            removeFromTable(row);
+        } else {
+            customRows.remove(customIds.remove(row));
+        }
+        if (nameLengths[row] != NULL_NAME) {
+            arenaGarbage += nameLengths[row];
+        }
+        state[row] = DELETED;
+        liveRows--;
+        if (rowCount > INITIAL_CAPACITY && liveRows < rowCount / 2) {
+            compactRows();
+        }
+    }
+
+    private void growRows() {
+        int capacity = state.length + (state.length >> 1);
+        state = Arrays.copyOf(state, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+    }
+
+    // Rewrites the arena without garbage when that frees enough room, otherwise grows it
+    private void growArena(int needed) {
+        int liveBytes = arenaSize - arenaGarbage;
+        int capacity = nameArena.length;
+        if (liveBytes + needed > capacity / 2) {
+            capacity = Math.max(capacity + (capacity >> 1), liveBytes + needed);
+        }
+        byte[] arena = new byte[capacity];
+        int size = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (state[row] != DELETED && nameLengths[row] != NULL_NAME) {
+                System.arraycopy(nameArena, nameOffsets[row], arena, size, nameLengths[row]);
+                nameOffsets[row] = size;
+                size += nameLengths[row];
+            }
+        }
+        nameArena = arena;
+        arenaSize = size;
+        arenaGarbage = 0;
+    }
+
+    // Slides live rows over deleted ones, keeping insertion order, and rebuilds the row indexes
+    private void compactRows() {
+        int target = 0;
+        customRows.clear();
+        Map<Integer, String> movedCustomIds = new HashMap<>();
+        int[] renumbered = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if (state[row] == DELETED) {
+                continue;
+            }
+            renumbered[row] = target;
+            state[target] = state[row];
+            idHigh[target] = idHigh[row];
+            idLow[target] = idLow[row];
+            sequences[target] = sequences[row];
+            quantities[target] = quantities[row];
+            nameOffsets[target] = nameOffsets[row];
+            nameLengths[target] = nameLengths[row];
+            if (state[row] == CUSTOM_ID) {
+                String id = customIds.get(row);
+                movedCustomIds.put(target, id);
+                customRows.put(id, target);
+            }
+            target++;
+        }
+        Arrays.fill(state, target, rowCount, DELETED);
+        rowCount = target;
+        customIds.clear();
+        customIds.putAll(movedCustomIds);
+        byQuantity.renumber(renumbered);
+
+        table = new int[Math.max(INITIAL_CAPACITY * 2, Integer.highestOneBit(Math.max(1, liveRows)) * 4)];
+        tableSize = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (state[row] == UUID_ID) {
+                insertIntoTable(row);
+            }
+        }
+    }
+
+    private int bucketOf(long high, long low) {
+        long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (table.length - 1);
+    }
+
+    private void insertIntoTable(int row) {
+        if ((tableSize + 1) * 2 > table.length) {
+            int[] old = table;
+            table = new int[old.length * 2];
+            tableSize = 0;
+            for (int entry : old) {
+                if (entry != 0) {
+                    insertIntoTable(entry - 1);
+                }
+            }
+        }
+        int mask = table.length - 1;
+        int bucket = bucketOf(idHigh[row], idLow[row]);
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = row + 1;
+        tableSize++;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void removeFromTable(int row) {
+        int mask = table.length - 1;
+        int bucket = bucketOf(idHigh[row], idLow[row]);
+        while (table[bucket] != row + 1) {
+            bucket = (bucket + 1) & mask;
+        }
+        int hole = bucket;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int entryRow = table[next] - 1;
+            int home = bucketOf(idHigh[entryRow], idLow[entryRow]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+        tableSize--;
+    }
+
+    private static UUID parseCanonicalUuid(String id) {
+        if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-'
+                || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> items;
+
+    // Opaque token for the following page, null on the last page
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    static String encode(long sequence) {
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString(Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A null or blank cursor means "start from the beginning"
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
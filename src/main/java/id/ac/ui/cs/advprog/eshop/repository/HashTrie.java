@@ -0,0 +1,251 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Immutable hash array mapped trie keyed by {@code String}.
+ * Every update copies only the path from the root to the changed entry
+ * (at most seven nodes), the rest of the trie is shared with the previous version.
+ */
+final class HashTrie<V> {
+
+    private static final HashTrie<?> EMPTY = new HashTrie<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private HashTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> HashTrie<V> empty() {
+        return (HashTrie<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    HashTrie<V> put(String key, V value) {
+        boolean[] added = new boolean[1];
+        Node base = root == null ? BitmapNode.EMPTY : root;
+        Node newRoot = base.put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new HashTrie<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    HashTrie<V> remove(String key) {
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return new HashTrie<>(newRoot, size - 1);
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private abstract static class Node {
+        abstract Object find(int shift, int hash, String key);
+
+        abstract Node put(int shift, int hash, String key, Object value, boolean[] added);
+
+        // Returns null once the node has no entries left
+        abstract Node remove(int shift, int hash, String key);
+    }
+
+    // Slots are stored as pairs: (key, value) for an entry or (null, child node) for a sub-trie
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = index(bit);
+            Object slotKey = array[2 * idx];
+            Object slotValue = array[2 * idx + 1];
+            if (slotKey == null) {
+                return ((Node) slotValue).find(shift + BITS, hash, key);
+            }
+            return key.equals(slotKey) ? slotValue : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                int count = Integer.bitCount(bitmap);
+                Object[] newArray = new Object[2 * (count + 1)];
+                System.arraycopy(array, 0, newArray, 0, 2 * idx);
+                newArray[2 * idx] = key;
+                newArray[2 * idx + 1] = value;
+                System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), 2 * (count - idx));
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object slotKey = array[2 * idx];
+            Object slotValue = array[2 * idx + 1];
+            if (slotKey == null) {
+                Node child = ((Node) slotValue).put(shift + BITS, hash, key, value, added);
+                return child == slotValue ? this : withSlot(2 * idx + 1, child);
+            }
+            if (key.equals(slotKey)) {
+                return slotValue == value ? this : withSlot(2 * idx + 1, value);
+            }
+
+            added[0] = true;
+            Node child = pair(shift + BITS, (String) slotKey, slotValue, hash, key, value);
+            Object[] newArray = array.clone();
+            newArray[2 * idx] = null;
+            newArray[2 * idx + 1] = child;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, String key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object slotKey = array[2 * idx];
+            Object slotValue = array[2 * idx + 1];
+            if (slotKey == null) {
+                Node child = ((Node) slotValue).remove(shift + BITS, hash, key);
+                if (child == slotValue) {
+                    return this;
+                }
+                if (child != null) {
+                    return withSlot(2 * idx + 1, child);
+                }
+            } else if (!key.equals(slotKey)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            System.arraycopy(array, 2 * (idx + 1), newArray, 2 * idx, newArray.length - 2 * idx);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        private BitmapNode withSlot(int position, Object value) {
+            Object[] newArray = array.clone();
+            newArray[position] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node pair(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, ignored)
+                        .put(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    // Keys whose full 32-bit hashes are equal
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                BitmapNode wrapper = new BitmapNode(bit(this.hash, shift), new Object[]{null, this});
+                return wrapper.put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, String key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+}
@@ -2,5 +2,5 @@ package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
 
-public interface ICarRepository extends IRepository<Car> {
+public interface ICarRepository extends IStockRepository<Car> {
 }
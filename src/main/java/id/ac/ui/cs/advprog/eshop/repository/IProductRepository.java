@@ -2,5 +2,18 @@ package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
 
-public interface IProductRepository extends IRepository<Product> {
+import java.util.List;
+import java.util.Map;
+
+public interface IProductRepository extends IStockRepository<Product> {
+    // Case-insensitive name searches, returning at most limit products
+    List<Product> findByNamePrefix(String prefix, int limit);
+    List<Product> findByNameContaining(String text, int limit);
+
+    // Adds delta to the stock in one atomic step, refusing a negative result;
+    // returns the updated product, or null when refused or the id is unknown
+    Product adjustQuantity(String id, int delta);
+    // Adds every delta in one atomic step, or none of them when any id is unknown or any stock
+    // would go negative; returns the updated products in the map's order, or null when refused
+    List<Product> adjustQuantities(Map<String, Integer> deltas);
 }
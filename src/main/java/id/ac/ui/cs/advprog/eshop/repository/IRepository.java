@@ -1,11 +1,36 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IRepository<T> {
     T create(T item);
+    // Creates the item in one atomic step unless its id is already taken; returns null when it is
+    T createIfAbsent(T item);
+    // Read-only view that callers may share without copying
     List<T> findAll();  
+    // Every item in findAll's order, for scans within the application: engines that otherwise copy
+    // hand over the stored instances, which the visitor may read but must never modify
+    void forEachItem(Consumer<? super T> visitor);
     T findById(String id);
+
+    // Keyset page after the given cursor; pass null for the first page
+    CursorPage<T> findPage(String cursor, int size);
     T update(T item);  
     void delete(String id);
+
+    // Batch writes take the engine's lock or snapshot swap once for the whole list
+    List<T> createAll(List<T> items);
+    // Returns the items that existed and were updated, skipping unknown ids
+    List<T> updateAll(List<T> items);
+    void deleteAll(List<String> ids);
+
+    // Changes on every successful create, update or delete
+    long getVersion();
+    int count();
+
+    void addListener(RepositoryListener<T> listener);
+
+    // Every later write throws IllegalStateException with this cause; for when the copy on disk fell behind
+    void markReadOnly(Exception cause);
 }
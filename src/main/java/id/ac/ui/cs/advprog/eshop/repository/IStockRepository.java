@@ -0,0 +1,14 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.List;
+
+// Queries over the stocked quantity, answered from an ordered index rather than by sorting findAll()
+public interface IStockRepository<T> extends IRepository<T> {
+    // Items with min <= quantity <= max ordered by quantity, then id; pass a null cursor for the first page
+    CursorPage<T> findPageByQuantity(int min, int max, boolean descending, String cursor, int size);
+
+    // The limit items with the lowest quantities, or the highest when descending
+    default List<T> findTopByQuantity(int limit, boolean descending) {
+        return findPageByQuantity(Integer.MIN_VALUE, Integer.MAX_VALUE, descending, null, limit).getItems();
+    }
+}
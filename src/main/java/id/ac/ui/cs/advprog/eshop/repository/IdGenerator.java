@@ -0,0 +1,7 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+// Source of ids for items created without one
+@FunctionalInterface
+public interface IdGenerator {
+    String nextId();
+}
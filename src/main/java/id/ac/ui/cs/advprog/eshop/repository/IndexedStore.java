@@ -0,0 +1,240 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The in-memory engine shared by {@link ProductRepository} and
+ * {@link CarRepository}. Items live in a persistent {@link Snapshot}, hashed by
+ * id and kept in insertion order; readers share whichever snapshot is
+ * published and writers swap in the next one with a CAS. An entity only has to
+ * say how its id is read, assigned and copied.
+ *
+ * <p>Published items never leave the store: writes keep a copy of the caller's
+ * item and reads hand out copies. A caller editing an item it fetched therefore
+ * changes nothing until it calls update, and listeners always see distinct
+ * previous and current items.
+ */
+final class IndexedStore<T> {
+
+    private final Function<T, String> idOf;
+    private final BiConsumer<T, String> assignId;
+    private final Supplier<String> newId;
+    private final UnaryOperator<T> copy;
+
+    private final AtomicReference<Snapshot<T>> data = new AtomicReference<>(Snapshot.empty());
+
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final WriteGuard writeGuard = new WriteGuard();
+
+    IndexedStore(Function<T, String> idOf, BiConsumer<T, String> assignId, Supplier<String> newId,
+                 UnaryOperator<T> copy) {
+        this.idOf = idOf;
+        this.assignId = assignId;
+        this.newId = newId;
+        this.copy = copy;
+    }
+
+    T create(T item) {
+        assignIdIfMissing(item);
+        String id = idOf.apply(item);
+        T stored = copy.apply(item);
+        publish(List.of(id), (snapshot, i) -> snapshot.put(id, stored));
+        return item;
+    }
+
+    T createIfAbsent(T item) {
+        assignIdIfMissing(item);
+        String id = idOf.apply(item);
+        T stored = copy.apply(item);
+        // The check runs on the snapshot being replaced, so a concurrent create of the id makes the CAS retry
+        List<RepositoryChange<T>> changes = publish(List.of(id),
+                (snapshot, i) -> snapshot.findById(id) != null ? snapshot : snapshot.put(id, stored));
+        return changes.isEmpty() ? null : item;
+    }
+
+    // Copies items as they are read, so the whole catalog is still never copied at once
+    List<T> findAll() {
+        return new CopyingView<>(data.get(), copy);
+    }
+
+    // No copies: published items are replaced, never changed, so reading them in place is safe
+    void forEachItem(Consumer<? super T> visitor) {
+        for (T item : data.get()) {
+            visitor.accept(item);
+        }
+    }
+
+    T findById(String id) {
+        return copyOf(data.get().findById(id));
+    }
+
+    CursorPage<T> findPage(String cursor, int size) {
+        CursorPage<T> page = data.get().findPage(cursor, size);
+        List<T> items = new ArrayList<>(page.getItems().size());
+        for (T item : page.getItems()) {
+            items.add(copy.apply(item));
+        }
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+
+    T update(T item) {
+        String id = idOf.apply(item);
+        T stored = copy.apply(item);
+        if (id == null || publish(List.of(id), (snapshot, i) -> snapshot.replace(id, stored)).isEmpty()) {
+            return null;
+        }
+        return item;
+    }
+
+    void delete(String id) {
+        if (id != null) {
+            publish(List.of(id), (snapshot, i) -> snapshot.remove(id));
+        }
+    }
+
+    List<T> createAll(List<T> items) {
+        for (T item : items) {
+            assignIdIfMissing(item);
+        }
+        List<String> ids = idsOf(items);
+        List<T> stored = copiesOf(items);
+        publish(ids, (snapshot, i) -> snapshot.put(ids.get(i), stored.get(i)));
+        return items;
+    }
+
+    List<T> updateAll(List<T> items) {
+        List<String> ids = idsOf(items);
+        List<T> stored = copiesOf(items);
+        List<T> updated = new ArrayList<>();
+        for (RepositoryChange<T> change : publish(ids, (snapshot, i) -> ids.get(i) == null
+                ? snapshot : snapshot.replace(ids.get(i), stored.get(i)))) {
+            updated.add(copy.apply(change.current));
+        }
+        return updated;
+    }
+
+    void deleteAll(List<String> ids) {
+        publish(ids, (snapshot, i) -> ids.get(i) == null ? snapshot : snapshot.remove(ids.get(i)));
+    }
+
+    long getVersion() {
+        return data.get().getVersion();
+    }
+
+    int count() {
+        return data.get().size();
+    }
+
+    // Listeners hear of changes in the order they were added
+    void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    void markReadOnly(Exception cause) {
+        writeGuard.markReadOnly(cause);
+    }
+
+    // A published item, or null, as callers may hold it
+    T copyOf(T item) {
+        return item == null ? null : copy.apply(item);
+    }
+
+    // Applies each step in order and publishes the result with a single CAS; steps may run more than
+    // once, and a step returning null abandons the whole batch without publishing anything
+    List<RepositoryChange<T>> publish(List<String> ids, BiFunction<Snapshot<T>, Integer, Snapshot<T>> step) {
+        writeGuard.check();
+        while (true) {
+            Snapshot<T> current = data.get();
+            Snapshot<T> next = current;
+            List<RepositoryChange<T>> changes = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Snapshot<T> stepped = step.apply(next, i);
+                if (stepped == null) {
+                    return List.of();
+                }
+                if (stepped != next) {
+                    String id = ids.get(i);
+                    changes.add(new RepositoryChange<>(id, next.findById(id), stepped.findById(id), stepped.getVersion()));
+                    next = stepped;
+                }
+            }
+            if (next == current || data.compareAndSet(current, next)) {
+                RepositoryChange.notifyAll(listeners, changes);
+                return changes;
+            }
+        }
+    }
+
+    // A missing or empty id gets a generated one, for every entity alike
+    private void assignIdIfMissing(T item) {
+        String id = idOf.apply(item);
+        if (id == null || id.isEmpty()) {
+            assignId.accept(item, newId.get());
+        }
+    }
+
+    private List<String> idsOf(List<T> items) {
+        List<String> ids = new ArrayList<>(items.size());
+        for (T item : items) {
+            ids.add(idOf.apply(item));
+        }
+        return ids;
+    }
+
+    private List<T> copiesOf(List<T> items) {
+        List<T> copies = new ArrayList<>(items.size());
+        for (T item : items) {
+            copies.add(copy.apply(item));
+        }
+        return copies;
+    }
+
+    // Read-only list over one snapshot that hands out a fresh copy of each item it returns
+    private static final class CopyingView<T> extends AbstractList<T> implements RandomAccess {
+        private final Snapshot<T> snapshot;
+        private final UnaryOperator<T> copy;
+
+        CopyingView(Snapshot<T> snapshot, UnaryOperator<T> copy) {
+            this.snapshot = snapshot;
+            this.copy = copy;
+        }
+
+        @Override
+        public T get(int index) {
+            return copy.apply(snapshot.get(index));
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<T> items = snapshot.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return items.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return copy.apply(items.next());
+                }
+            };
+        }
+    }
+}
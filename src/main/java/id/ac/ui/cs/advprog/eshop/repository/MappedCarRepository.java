@@ -0,0 +1,186 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link ICarRepository} backed by a memory-mapped file, for catalogs larger
+ * than the heap budget. Enabled with {@code eshop.repository.storage=mapped}.
+ */
+@Repository
+@ConditionalOnProperty(name = "eshop.repository.storage", havingValue = "mapped")
+public class MappedCarRepository implements ICarRepository {
+
+    static final int MAX_ID_BYTES = 64;
+    static final int MAX_NAME_BYTES = 128;
+    static final int MAX_COLOR_BYTES = 32;
+
+    private final IdGenerator idGenerator;
+    private final MappedRecordStore<Car> store;
+    // Slot numbers ordered by quantity, read straight from the mapping
+    private final SortedRows byQuantity;
+
+    @Autowired
+    public MappedCarRepository(IdGenerator idGenerator,
+                               @Value("${eshop.repository.mapped.directory:data/mapped}") String directory,
+                               @Value("${eshop.repository.mapped.sync-batch-size:64}") int syncBatchSize,
+                               @Value("${eshop.repository.mapped.sync-interval-ms:50}") long syncIntervalMs)
+            throws IOException {
+        this(new MappedRecordStore<>(Paths.get(directory, "cars.dat"), new CarCodec(), syncBatchSize,
+                syncIntervalMs), idGenerator);
+    }
+
+    MappedCarRepository(Path file) throws IOException {
+        this(new MappedRecordStore<>(file, new CarCodec()), new TimeOrderedIdGenerator());
+    }
+
+    private MappedCarRepository(MappedRecordStore<Car> store, IdGenerator idGenerator) {
+        this.store = store;
+        this.idGenerator = idGenerator;
+        this.byQuantity = store.addIntIndex(CarCodec.QUANTITY_OFFSET);
+    }
+
+    @Override
+    public Car create(Car car) {
+        if (car.getCarId() == null || car.getCarId().isEmpty()) {
+            car.setCarId(idGenerator.nextId());
+        }
+        store.put(car);
+        return car;
+    }
+
+    @Override
+    public Car createIfAbsent(Car car) {
+        if (car.getCarId() == null || car.getCarId().isEmpty()) {
+            car.setCarId(idGenerator.nextId());
+        }
+        return store.putIfAbsent(car) ? car : null;
+    }
+
+    @Override
+    public List<Car> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public void forEachItem(Consumer<? super Car> visitor) {
+        store.forEachItem(visitor);
+    }
+
+    @Override
+    public Car findById(String id) {
+        return store.get(id);
+    }
+
+    @Override
+    public CursorPage<Car> findPage(String cursor, int size) {
+        return store.findPage(cursor, size);
+    }
+
+    @Override
+    public Car update(Car updatedCar) {
+        return store.replace(updatedCar) ? updatedCar : null;
+    }
+
+    @Override
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        for (Car car : cars) {
+            if (car.getCarId() == null || car.getCarId().isEmpty()) {
+                car.setCarId(idGenerator.nextId());
+            }
+        }
+        store.putAll(cars);
+        return cars;
+    }
+
+    @Override
+    public List<Car> updateAll(List<Car> cars) {
+        return store.replaceAll(cars);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        store.removeAll(ids);
+    }
+
+    @Override
+    public CursorPage<Car> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return store.findPageByInt(byQuantity, CarCodec.QUANTITY_OFFSET, min, max, descending, cursor, size);
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public int count() {
+        return store.size();
+    }
+
+    @Override
+    public void addListener(RepositoryListener<Car> listener) {
+        store.addListener(listener);
+    }
+
+    @Override
+    public void markReadOnly(Exception cause) {
+        store.markReadOnly(cause);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private static final class CarCodec implements RecordCodec<Car> {
+
+        private static final int NAME_OFFSET = RecordCodec.stringSize(MAX_ID_BYTES);
+        private static final int COLOR_OFFSET = NAME_OFFSET + RecordCodec.stringSize(MAX_NAME_BYTES);
+        private static final int QUANTITY_OFFSET = COLOR_OFFSET + RecordCodec.stringSize(MAX_COLOR_BYTES);
+
+        @Override
+        public int recordSize() {
+            return QUANTITY_OFFSET + Integer.BYTES;
+        }
+
+        @Override
+        public String idOf(Car car) {
+            return car.getCarId();
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Car car) {
+            RecordCodec.writeString(buffer, offset, car.getCarId(), MAX_ID_BYTES, "Car id");
+            RecordCodec.writeString(buffer, offset + NAME_OFFSET, car.getCarName(), MAX_NAME_BYTES, "Car name");
+            RecordCodec.writeString(buffer, offset + COLOR_OFFSET, car.getCarColor(), MAX_COLOR_BYTES, "Car color");
+            buffer.putInt(offset + QUANTITY_OFFSET, car.getCarQuantity());
+        }
+
+        @Override
+        public Car read(ByteBuffer buffer, int offset) {
+            Car car = new Car();
+            car.setCarId(RecordCodec.readString(buffer, offset));
+            car.setCarName(RecordCodec.readString(buffer, offset + NAME_OFFSET));
+            car.setCarColor(RecordCodec.readString(buffer, offset + COLOR_OFFSET));
+            car.setCarQuantity(buffer.getInt(offset + QUANTITY_OFFSET));
+            return car;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link IProductRepository} backed by a memory-mapped file, for catalogs larger
+ * than the heap budget. Enabled with {@code eshop.repository.storage=mapped}.
+ */
+@Repository
+@ConditionalOnProperty(name = "eshop.repository.storage", havingValue = "mapped")
+public class MappedProductRepository implements IProductRepository {
+
+    static final int MAX_ID_BYTES = 64;
+    static final int MAX_NAME_BYTES = 256;
+
+    private final IdGenerator idGenerator;
+    private final MappedRecordStore<Product> store;
+    // Slot numbers ordered by lower-cased name and by quantity, read straight from the mapping
+    private final SortedRows byName;
+    private final SortedRows byQuantity;
+
+    @Autowired
+    public MappedProductRepository(IdGenerator idGenerator,
+                                   @Value("${eshop.repository.mapped.directory:data/mapped}") String directory,
+                                   @Value("${eshop.repository.mapped.sync-batch-size:64}") int syncBatchSize,
+                                   @Value("${eshop.repository.mapped.sync-interval-ms:50}") long syncIntervalMs)
+            throws IOException {
+        this(new MappedRecordStore<>(Paths.get(directory, "products.dat"), new ProductCodec(), syncBatchSize,
+                syncIntervalMs), idGenerator);
+    }
+
+    MappedProductRepository(Path file) throws IOException {
+        this(new MappedRecordStore<>(file, new ProductCodec()), new TimeOrderedIdGenerator());
+    }
+
+    private MappedProductRepository(MappedRecordStore<Product> store, IdGenerator idGenerator) {
+        this.store = store;
+        this.idGenerator = idGenerator;
+        this.byName = store.addIndex(this::compareByName);
+        this.byQuantity = store.addIntIndex(ProductCodec.QUANTITY_OFFSET);
+    }
+
+    @Override
+    public Product create(Product product) {
+        if (product.getProductId() == null || product.getProductId().isEmpty()) {
+            product.setProductId(idGenerator.nextId());
+        }
+        store.put(product);
+        return product;
+    }
+
+    @Override
+    public Product createIfAbsent(Product product) {
+        if (product.getProductId() == null || product.getProductId().isEmpty()) {
+            product.setProductId(idGenerator.nextId());
+        }
+        return store.putIfAbsent(product) ? product : null;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public void forEachItem(Consumer<? super Product> visitor) {
+        store.forEachItem(visitor);
+    }
+
+    @Override
+    public Product findById(String id) {
+        return store.get(id);
+    }
+
+    @Override
+    public CursorPage<Product> findPage(String cursor, int size) {
+        return store.findPage(cursor, size);
+    }
+
+    @Override
+    public Product update(Product updatedProduct) {
+        return store.replace(updatedProduct) ? updatedProduct : null;
+    }
+
+    @Override
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        for (Product product : products) {
+            if (product.getProductId() == null || product.getProductId().isEmpty()) {
+                product.setProductId(idGenerator.nextId());
+            }
+        }
+        store.putAll(products);
+        return products;
+    }
+
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        return store.replaceAll(products);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        store.removeAll(ids);
+    }
+
+    @Override
+    public Product adjustQuantity(String id, int delta) {
+        return store.update(id, product -> {
+            long quantity = (long) product.getProductQuantity() + delta;
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return null;
+            }
+            product.setProductQuantity((int) quantity);
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> adjustQuantities(Map<String, Integer> deltas) {
+        return store.updateAll(new ArrayList<>(deltas.keySet()), (id, product) -> {
+            long quantity = (long) product.getProductQuantity() + deltas.get(id);
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return null;
+            }
+            product.setProductQuantity((int) quantity);
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized == null) {
+            return new ArrayList<>();
+        }
+        return store.read(() -> {
+            List<Product> result = new ArrayList<>();
+            int position = byName.first(slot -> compareName(nameOf(slot), normalized) >= 0);
+            for (; position != SortedRows.NONE && result.size() < limit; position = byName.next(position)) {
+                int slot = byName.row(position);
+                String name = nameOf(slot);
+                if (name == null || !name.startsWith(normalized)) {
+                    break;
+                }
+                result.add(store.readSlot(slot));
+            }
+            return result;
+        });
+    }
+
+    // Walks every record, as the columnar engine does; a trigram index would cost the heap a kilobyte per row
+    @Override
+    public List<Product> findByNameContaining(String text, int limit) {
+        String normalized = normalize(text);
+        if (normalized == null) {
+            return new ArrayList<>();
+        }
+        return store.scan(slot -> {
+            String name = nameOf(slot);
+            return name != null && name.contains(normalized);
+        }, limit);
+    }
+
+    @Override
+    public CursorPage<Product> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return store.findPageByInt(byQuantity, ProductCodec.QUANTITY_OFFSET, min, max, descending, cursor, size);
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public int count() {
+        return store.size();
+    }
+
+    @Override
+    public void addListener(RepositoryListener<Product> listener) {
+        store.addListener(listener);
+    }
+
+    @Override
+    public void markReadOnly(Exception cause) {
+        store.markReadOnly(cause);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    // Callers hold the store's lock for the three below
+
+    private String nameOf(int slot) {
+        return normalize(store.readString(slot, ProductCodec.NAME_OFFSET));
+    }
+
+    // Products without a name sort first and never match a search
+    private int compareByName(int slot, int other) {
+        int byName = compareName(nameOf(slot), nameOf(other));
+        return byName != 0 ? byName : store.readString(slot, 0).compareTo(store.readString(other, 0));
+    }
+
+    private static int compareName(String name, String other) {
+        if (name == null || other == null) {
+            return name == null ? (other == null ? 0 : -1) : 1;
+        }
+        return name.compareTo(other);
+    }
+
+    private static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static final class ProductCodec implements RecordCodec<Product> {
+
+        private static final int NAME_OFFSET = RecordCodec.stringSize(MAX_ID_BYTES);
+        private static final int QUANTITY_OFFSET = NAME_OFFSET + RecordCodec.stringSize(MAX_NAME_BYTES);
+
+        @Override
+        public int recordSize() {
+            return QUANTITY_OFFSET + Integer.BYTES;
+        }
+
+        @Override
+        public String idOf(Product product) {
+            return product.getProductId();
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Product product) {
+            RecordCodec.writeString(buffer, offset, product.getProductId(), MAX_ID_BYTES, "Product id");
+            RecordCodec.writeString(buffer, offset + NAME_OFFSET, product.getProductName(), MAX_NAME_BYTES,
+                    "Product name");
+            buffer.putInt(offset + QUANTITY_OFFSET, product.getProductQuantity());
+        }
+
+        @Override
+        public Product read(ByteBuffer buffer, int offset) {
+            Product product = new Product();
+            product.setProductId(RecordCodec.readString(buffer, offset));
+            product.setProductName(RecordCodec.readString(buffer, offset + NAME_OFFSET));
+            product.setProductQuantity(buffer.getInt(offset + QUANTITY_OFFSET));
+            return product;
+        }
+    }
+}
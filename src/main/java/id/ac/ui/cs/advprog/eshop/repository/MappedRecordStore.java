@@ -0,0 +1,721 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage engine that keeps fixed-size records in a memory-mapped file instead
+ * of on the heap. Entities are decoded from the mapping on every read; the heap
+ * only holds primitive indexes over slot numbers, a few bytes per record: an
+ * open-addressed id table, the insertion order and any secondary orders added
+ * with {@link #addIndex}. Slots released by {@link #remove} go on a free list
+ * and are reused by later inserts.
+ *
+ * <p>Slot layout: a status byte, the insertion sequence, then the codec's record.
+ * Records are encoded off to the side first and copied into the slot whole, so
+ * one the codec rejects never leaves a half-overwritten record behind.
+ *
+ * <p>Written slots are forced to disk in groups, either once
+ * {@code syncBatchSize} writes are pending or every {@code syncIntervalMs}, so
+ * a crash of the machine loses at most that window.
+ */
+class MappedRecordStore<T> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedRecordStore.class);
+
+    static final int DEFAULT_SYNC_BATCH_SIZE = 64;
+    static final long DEFAULT_SYNC_INTERVAL_MS = 50;
+
+    private static final int SLOTS_PER_SEGMENT = 16_384;
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final int HEADER_SIZE = 1 + Long.BYTES;
+
+    private final RecordCodec<T> codec;
+    private final FileChannel channel;
+    private final int slotSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final WriteGuard writeGuard = new WriteGuard();
+
+    // Everything below up to version is guarded by the lock
+    private final ByteBuffer scratch;
+    // Id table of slot + 1, 0 for an empty bucket, with each slot's id hash alongside
+    private int[] table = new int[1024];
+    private int[] idHashes = new int[0];
+    private final SortedRows order = new SortedRows(this::compareBySequence);
+    private final List<SortedRows> indexes = new ArrayList<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+    private int nextSlot;
+    private long lastSequence;
+    private volatile long version;
+
+    private final int syncBatchSize;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final AtomicInteger unsyncedWrites = new AtomicInteger();
+    private final ScheduledExecutorService background;
+
+    MappedRecordStore(Path file, RecordCodec<T> codec) throws IOException {
+        this(file, codec, DEFAULT_SYNC_BATCH_SIZE, DEFAULT_SYNC_INTERVAL_MS);
+    }
+
+    MappedRecordStore(Path file, RecordCodec<T> codec, int syncBatchSize, long syncIntervalMs) throws IOException {
+        this.codec = codec;
+        this.slotSize = HEADER_SIZE + codec.recordSize();
+        this.scratch = ByteBuffer.allocate(codec.recordSize());
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        load();
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mapped-store-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, syncIntervalMs);
+        background.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Rebuilds the indexes and the free list from an existing file
+    private void load() throws IOException {
+        long segmentBytes = (long) slotSize * SLOTS_PER_SEGMENT;
+        long segmentCount = (channel.size() + segmentBytes - 1) / segmentBytes;
+        for (int i = 0; i < segmentCount; i++) {
+            mapSegment();
+        }
+        int highWater = 0;
+        for (int slot = 0; slot < segmentCount * SLOTS_PER_SEGMENT; slot++) {
+            MappedByteBuffer segment = segmentOf(slot);
+            int offset = offsetOf(slot);
+            if (segment.get(offset) != USED) {
+                continue;
+            }
+            idHashes[slot] = hash(RecordCodec.readString(segment, offset + HEADER_SIZE));
+            insertIntoTable(slot);
+            order.insert(slot);
+            size++;
+            lastSequence = Math.max(lastSequence, segment.getLong(offset + 1));
+            highWater = slot + 1;
+        }
+        // Pushed from the top down, so inserts fill the lowest free slots first
+        for (int slot = highWater - 1; slot >= 0; slot--) {
+            if (segmentOf(slot).get(offsetOf(slot)) != USED) {
+                pushFree(slot);
+            }
+        }
+        nextSlot = highWater;
+    }
+
+    private MappedByteBuffer mapSegment() throws IOException {
+        long segmentBytes = (long) slotSize * SLOTS_PER_SEGMENT;
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * segmentBytes,
+                segmentBytes);
+        segments.add(segment);
+        idHashes = Arrays.copyOf(idHashes, segments.size() * SLOTS_PER_SEGMENT);
+        return segment;
+    }
+
+    private MappedByteBuffer segmentOf(int slot) {
+        return segments.get(slot / SLOTS_PER_SEGMENT);
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % SLOTS_PER_SEGMENT) * slotSize;
+    }
+
+    /**
+     * Adds a secondary order over the live slots, kept up to date by every
+     * write. The order reads the records through {@link #readInt} and
+     * {@link #readString}; queries walk it inside {@link #read}.
+     */
+    SortedRows addIndex(IntBinaryOperator slotOrder) {
+        lock.writeLock().lock();
+        try {
+            SortedRows index = new SortedRows(slotOrder);
+            for (int position = order.first(slot -> true); position != SortedRows.NONE;
+                    position = order.next(position)) {
+                index.insert(order.row(position));
+            }
+            indexes.add(index);
+            return index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Orders the live slots by an int field, then by id, which is the order QuantityIndex pages in
+    SortedRows addIntIndex(int fieldOffset) {
+        return addIndex((slot, other) -> {
+            int byField = Integer.compare(readInt(slot, fieldOffset), readInt(other, fieldOffset));
+            return byField != 0 ? byField : readString(slot, 0).compareTo(readString(other, 0));
+        });
+    }
+
+    /**
+     * Pages through an index from {@link #addIntIndex} over items with
+     * {@code min <= field <= max}, with the cursors {@link QuantityIndex} uses.
+     */
+    CursorPage<T> findPageByInt(SortedRows index, int fieldOffset, int min, int max, boolean descending,
+                                String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        List<T> items = new ArrayList<>(Math.min(size, 64));
+        if (min > max) {
+            return new CursorPage<>(items, null);
+        }
+        QuantityIndex.Key after = QuantityIndex.decode(cursor);
+        lock.readLock().lock();
+        try {
+            int position;
+            if (descending) {
+                position = after != null && after.quantity <= max
+                        ? index.lastBefore(slot -> compareToKey(slot, fieldOffset, after) >= 0)
+                        : index.lastBefore(slot -> readInt(slot, fieldOffset) > max);
+            } else {
+                position = after != null && after.quantity >= min
+                        ? index.first(slot -> compareToKey(slot, fieldOffset, after) > 0)
+                        : index.first(slot -> readInt(slot, fieldOffset) >= min);
+            }
+            int lastSlot = -1;
+            while (position != SortedRows.NONE) {
+                int slot = index.row(position);
+                int value = readInt(slot, fieldOffset);
+                if (value < min || value > max) {
+                    break;
+                }
+                if (items.size() == size) {
+                    return new CursorPage<>(items,
+                            QuantityIndex.encode(readInt(lastSlot, fieldOffset), readString(lastSlot, 0)));
+                }
+                items.add(readSlot(slot));
+                lastSlot = slot;
+                position = descending ? index.previous(position) : index.next(position);
+            }
+            return new CursorPage<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A null id stands for a key below every id of its value, as in QuantityIndex
+    private int compareToKey(int slot, int fieldOffset, QuantityIndex.Key key) {
+        int byField = Long.compare(readInt(slot, fieldOffset), key.quantity);
+        if (byField != 0) {
+            return byField;
+        }
+        return key.id == null ? 1 : readString(slot, 0).compareTo(key.id);
+    }
+
+    // Runs query under the read lock, for walking an index and reading the slots it lists
+    <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The three accessors below expect the caller to hold the lock; offsets are within the record
+
+    T readSlot(int slot) {
+        return codec.read(segmentOf(slot), offsetOf(slot) + HEADER_SIZE);
+    }
+
+    int readInt(int slot, int fieldOffset) {
+        return segmentOf(slot).getInt(offsetOf(slot) + HEADER_SIZE + fieldOffset);
+    }
+
+    String readString(int slot, int fieldOffset) {
+        return RecordCodec.readString(segmentOf(slot), offsetOf(slot) + HEADER_SIZE + fieldOffset);
+    }
+
+    // Live slots in insertion order that match, decoded, stopping at limit
+    List<T> scan(IntPredicate matches, int limit) {
+        lock.readLock().lock();
+        try {
+            List<T> items = new ArrayList<>();
+            for (int position = order.first(slot -> true); position != SortedRows.NONE && items.size() < limit;
+                    position = order.next(position)) {
+                int slot = order.row(position);
+                if (matches.test(slot)) {
+                    items.add(readSlot(slot));
+                }
+            }
+            return items;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(id);
+            return slot < 0 ? null : readSlot(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Records are decoded on every read anyway; the visitor runs after the lock is released
+    void forEachItem(Consumer<? super T> visitor) {
+        findAll().forEach(visitor);
+    }
+
+    List<T> findAll() {
+        lock.readLock().lock();
+        try {
+            List<T> items = new ArrayList<>(size);
+            for (int position = order.first(slot -> true); position != SortedRows.NONE;
+                    position = order.next(position)) {
+                items.add(readSlot(order.row(position)));
+            }
+            return Collections.unmodifiableList(items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    CursorPage<T> findPage(String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        long after = CursorPage.decode(cursor);
+        lock.readLock().lock();
+        try {
+            List<T> items = new ArrayList<>();
+            long last = after;
+            int position = order.first(slot -> sequenceOf(slot) > after);
+            for (; position != SortedRows.NONE && items.size() < size; position = order.next(position)) {
+                int slot = order.row(position);
+                items.add(readSlot(slot));
+                last = sequenceOf(slot);
+            }
+            return new CursorPage<>(items, position != SortedRows.NONE ? CursorPage.encode(last) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    void markReadOnly(Exception cause) {
+        writeGuard.markReadOnly(cause);
+    }
+
+    // Inserts the item, or overwrites it in place when its id already exists
+    void put(T item) {
+        putAll(List.of(item));
+    }
+
+    // Inserts the item unless its id exists, checked and written under one hold of the write lock
+    boolean putIfAbsent(T item) {
+        return !writeAll(List.of(item), true, false).isEmpty();
+    }
+
+    boolean replace(T item) {
+        return !replaceAll(List.of(item)).isEmpty();
+    }
+
+    boolean remove(String id) {
+        return id != null && removeAll(List.of(id)) > 0;
+    }
+
+    void putAll(List<T> items) {
+        writeAll(items, true, true);
+    }
+
+    // Returns the items whose ids were present
+    List<T> replaceAll(List<T> items) {
+        List<T> replaced = new ArrayList<>();
+        for (RepositoryChange<T> change : writeAll(items, false, true)) {
+            replaced.add(change.current);
+        }
+        return replaced;
+    }
+
+    int removeAll(List<String> ids) {
+        writeGuard.check();
+        List<RepositoryChange<T>> changes = new ArrayList<>();
+        try {
+            lock.writeLock().lock();
+            try {
+                for (String id : ids) {
+                    int slot = id == null ? -1 : findSlot(id);
+                    if (slot < 0) {
+                        continue;
+                    }
+                    T previous = readSlot(slot);
+                    removeFromTable(slot);
+                    order.remove(slot);
+                    for (SortedRows index : indexes) {
+                        index.remove(slot);
+                    }
+                    segmentOf(slot).put(offsetOf(slot), FREE);
+                    pushFree(slot);
+                    size--;
+                    changes.add(new RepositoryChange<>(id, previous, null, ++version));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            RepositoryChange.notifyAll(listeners, changes);
+        }
+        written(changes.size());
+        return changes.size();
+    }
+
+    // Rewrites the record with change applied under the write lock; a null result leaves it untouched
+    T update(String id, UnaryOperator<T> change) {
+        if (id == null) {
+            return null;
+        }
+        writeGuard.check();
+        T previous;
+        T current;
+        long newVersion;
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(id);
+            if (slot < 0) {
+                return null;
+            }
+            previous = readSlot(slot);
+            current = change.apply(readSlot(slot));
+            if (current == null) {
+                return null;
+            }
+            overwrite(slot, current);
+            newVersion = ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        RepositoryChange.notifyAll(listeners, List.of(new RepositoryChange<>(id, previous, current, newVersion)));
+        written(1);
+        return current;
+    }
+
+    // Applies change to every listed record under one hold of the write lock, or to none of them when
+    // an id is unknown or change returns null for it; returns the new records in order, or null.
+    // The ids must be distinct.
+    List<T> updateAll(List<String> ids, BiFunction<String, T, T> change) {
+        writeGuard.check();
+        List<RepositoryChange<T>> changes = new ArrayList<>(ids.size());
+        List<T> updated = new ArrayList<>(ids.size());
+        try {
+            lock.writeLock().lock();
+            try {
+                int[] slots = new int[ids.size()];
+                List<T> previous = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.get(i);
+                    slots[i] = id == null ? -1 : findSlot(id);
+                    T current = slots[i] < 0 ? null : change.apply(id, readSlot(slots[i]));
+                    if (current == null) {
+                        return null;
+                    }
+                    previous.add(readSlot(slots[i]));
+                    updated.add(current);
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    overwrite(slots[i], updated.get(i));
+                    changes.add(new RepositoryChange<>(ids.get(i), previous.get(i), updated.get(i), ++version));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            RepositoryChange.notifyAll(listeners, changes);
+        }
+        written(changes.size());
+        return updated;
+    }
+
+    // Records written before a failing one stay written, and listeners still hear about them
+    private List<RepositoryChange<T>> writeAll(List<T> items, boolean insertIfMissing, boolean replaceExisting) {
+        writeGuard.check();
+        List<RepositoryChange<T>> changes = new ArrayList<>(items.size());
+        try {
+            lock.writeLock().lock();
+            try {
+                for (T item : items) {
+                    String id = codec.idOf(item);
+                    if (id == null) {
+                        continue;
+                    }
+                    T previous = null;
+                    int slot = findSlot(id);
+                    if (slot >= 0) {
+                        if (!replaceExisting) {
+                            continue;
+                        }
+                        previous = readSlot(slot);
+                        overwrite(slot, item);
+                    } else if (!insertIfMissing) {
+                        continue;
+                    } else {
+                        insert(id, item);
+                    }
+                    changes.add(new RepositoryChange<>(id, previous, item, ++version));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            RepositoryChange.notifyAll(listeners, changes);
+        }
+        written(changes.size());
+        return changes;
+    }
+
+    // Caller holds the write lock
+    private void insert(String id, T item) {
+        encode(item);
+        int slot = allocateSlot();
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = offsetOf(slot);
+        segment.put(offset + HEADER_SIZE, scratch, 0, scratch.capacity());
+        segment.putLong(offset + 1, ++lastSequence);
+        // Flipped last so a torn write leaves the slot free
+        segment.put(offset, USED);
+        idHashes[slot] = hash(id);
+        insertIntoTable(slot);
+        order.insert(slot);
+        for (SortedRows index : indexes) {
+            index.insert(slot);
+        }
+        size++;
+    }
+
+    // Caller holds the write lock; the codec may throw before anything reaches the slot or the indexes
+    private void overwrite(int slot, T item) {
+        encode(item);
+        // Taken out while the record still holds the values they are sorted by
+        for (SortedRows index : indexes) {
+            index.remove(slot);
+        }
+        segmentOf(slot).put(offsetOf(slot) + HEADER_SIZE, scratch, 0, scratch.capacity());
+        for (SortedRows index : indexes) {
+            index.insert(slot);
+        }
+    }
+
+    // Caller holds the write lock
+    private void encode(T item) {
+        codec.write(scratch, 0, item);
+    }
+
+    // Caller holds the write lock
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == segments.size() * SLOTS_PER_SEGMENT) {
+            try {
+                mapSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not grow mapped storage", e);
+            }
+        }
+        return nextSlot++;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private long sequenceOf(int slot) {
+        return segmentOf(slot).getLong(offsetOf(slot) + 1);
+    }
+
+    private int compareBySequence(int slot, int other) {
+        return Long.compare(sequenceOf(slot), sequenceOf(other));
+    }
+
+    // Id lookups compare the UTF-8 bytes in the slot, so a probe decodes nothing
+
+    private int findSlot(String id) {
+        int hash = hash(id);
+        byte[] bytes = null;
+        int mask = table.length - 1;
+        for (int bucket = hash & mask; table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int slot = table[bucket] - 1;
+            if (idHashes[slot] != hash) {
+                continue;
+            }
+            if (bytes == null) {
+                bytes = id.getBytes(StandardCharsets.UTF_8);
+            }
+            if (idEquals(slot, bytes)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Every codec writes the id first, with RecordCodec.writeString
+    private boolean idEquals(int slot, byte[] id) {
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = offsetOf(slot) + HEADER_SIZE;
+        if (segment.getShort(offset) != id.length) {
+            return false;
+        }
+        return segment.slice(offset + Short.BYTES, id.length).equals(ByteBuffer.wrap(id));
+    }
+
+    private void insertIntoTable(int slot) {
+        if ((size + 1) * 2 > table.length) {
+            int[] old = table;
+            table = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    placeInTable(entry - 1);
+                }
+            }
+        }
+        placeInTable(slot);
+    }
+
+    private void placeInTable(int slot) {
+        int mask = table.length - 1;
+        int bucket = idHashes[slot] & mask;
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot + 1;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void removeFromTable(int slot) {
+        int mask = table.length - 1;
+        int bucket = idHashes[slot] & mask;
+        while (table[bucket] != slot + 1) {
+            bucket = (bucket + 1) & mask;
+        }
+        int hole = bucket;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int home = idHashes[table[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private static int hash(String id) {
+        return id.hashCode() * 0x9E3779B9;
+    }
+
+    // Counts writes after they are acknowledged and forces the mapping once a batch is pending
+    private void written(int writes) {
+        if (writes > 0 && unsyncedWrites.addAndGet(writes) >= syncBatchSize) {
+            sync();
+        }
+    }
+
+    private void sync() {
+        syncLock.lock();
+        try {
+            if (unsyncedWrites.getAndSet(0) == 0) {
+                return;
+            }
+            List<MappedByteBuffer> mapped;
+            lock.readLock().lock();
+            try {
+                mapped = List.copyOf(segments);
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (MappedByteBuffer segment : mapped) {
+                segment.force();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Runs on the fixed-delay schedule, which a thrown exception would cancel for good
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            LOG.error("Could not force mapped storage to disk", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        background.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
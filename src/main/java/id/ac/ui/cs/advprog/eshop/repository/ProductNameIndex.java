@@ -0,0 +1,155 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * In-memory search index over {@code Product.productName}.
+ * Prefix queries walk a sorted set of names, substring queries use trigram
+ * posting lists, so a query costs time proportional to its matches rather
+ * than to the catalog size.
+ */
+final class ProductNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final char SEPARATOR = '\u0000';
+
+    // Names are padded so every substring shorter than a trigram is the prefix of an indexed trigram
+    private static final String PADDING = "\u0001\u0001";
+
+    private final Function<String, Product> lookup;
+    private final ConcurrentMap<String, String> indexedNames = new ConcurrentHashMap<>();
+    private final NavigableSet<String> sortedNames = new ConcurrentSkipListSet<>();
+    private final ConcurrentNavigableMap<String, Set<String>> grams = new ConcurrentSkipListMap<>();
+
+    ProductNameIndex(Function<String, Product> lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Brings the entry for {@code productId} in line with the repository's
+     * current state. Re-reading the product under the per-id lock means
+     * concurrent writers to the same product cannot leave a stale entry behind.
+     */
+    void reindex(String productId) {
+        indexedNames.compute(productId, (id, oldName) -> {
+            Product current = lookup.apply(id);
+            String newName = current == null ? null : normalize(current.getProductName());
+            if (newName != null && newName.equals(oldName)) {
+                return oldName;
+            }
+            if (oldName != null) {
+                sortedNames.remove(oldName + SEPARATOR + id);
+                for (String gram : gramsOf(oldName)) {
+                    grams.computeIfPresent(gram, (key, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+            }
+            if (newName != null) {
+                sortedNames.add(newName + SEPARATOR + id);
+                for (String gram : gramsOf(newName)) {
+                    grams.compute(gram, (key, ids) -> {
+                        Set<String> postings = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                        postings.add(id);
+                        return postings;
+                    });
+                }
+            }
+            return newName;
+        });
+    }
+
+    List<Product> findByPrefix(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        List<Product> result = new ArrayList<>();
+        if (normalized == null) {
+            return result;
+        }
+        for (String key : sortedNames.subSet(normalized, true, normalized + Character.MAX_VALUE, false)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            addIfPresent(key.substring(key.lastIndexOf(SEPARATOR) + 1), result);
+        }
+        return result;
+    }
+
+    List<Product> findContaining(String text, int limit) {
+        String normalized = normalize(text);
+        List<Product> result = new ArrayList<>();
+        if (normalized == null) {
+            return result;
+        }
+        if (normalized.length() < GRAM_LENGTH) {
+            // Every trigram starting with the query belongs to a name containing it
+            Set<String> seen = new HashSet<>();
+            for (Set<String> postings : grams.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+                for (String id : postings) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    if (seen.add(id)) {
+                        addIfPresent(id, result);
+                    }
+                }
+            }
+            return result;
+        }
+
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            Set<String> postings = grams.getOrDefault(normalized.substring(i, i + GRAM_LENGTH), Set.of());
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+        for (String id : candidates) {
+            if (result.size() >= limit) {
+                break;
+            }
+            String name = indexedNames.get(id);
+            if (name != null && name.contains(normalized)) {
+                addIfPresent(id, result);
+            }
+        }
+        return result;
+    }
+
+    private void addIfPresent(String id, List<Product> result) {
+        Product product = lookup.apply(id);
+        if (product != null) {
+            result.add(product);
+        }
+    }
+
+    private static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static Set<String> gramsOf(String name) {
+        String padded = name + PADDING;
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+}
@@ -1,51 +1,171 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
+@ConditionalOnProperty(name = "eshop.repository.storage", havingValue = "memory", matchIfMissing = true)
 public class ProductRepository implements IProductRepository {
 
-    private final List<Product> productData = new ArrayList<>();
+    private final IndexedStore<Product> store;
+
+    private final ProductNameIndex nameIndex = new ProductNameIndex(this::findById);
+    private final QuantityIndex<Product> quantityIndex = new QuantityIndex<>(this::findById, Product::getProductQuantity);
+
+    // Outside Spring, e.g. in tests, ids come from a generator of its own
+    public ProductRepository() {
+        this(new TimeOrderedIdGenerator());
+    }
+
+    @Autowired
+    public ProductRepository(IdGenerator idGenerator) {
+        this.store = new IndexedStore<>(Product::getProductId, Product::setProductId, idGenerator::nextId,
+                Product::copy);
+        // Registered first, so the indexes are current before any other listener hears of a change
+        store.addListener((id, previous, current, version) -> {
+            nameIndex.reindex(id);
+            quantityIndex.reindex(id);
+        });
+    }
 
     @Override
     public Product create(Product product) {
-        if (product.getProductId() == null || product.getProductId().isEmpty()) {
-            product.setProductId(UUID.randomUUID().toString());
-        }
-        productData.add(product);
-        return product;
+        return store.create(product);
+    }
+
+    @Override
+    public Product createIfAbsent(Product product) {
+        return store.createIfAbsent(product);
     }
 
     @Override
     public List<Product> findAll() { 
-        return new ArrayList<>(productData);
+        return store.findAll();
+    }
+
+    @Override
+    public void forEachItem(Consumer<? super Product> visitor) {
+        store.forEachItem(visitor);
     }
 
     @Override
     public Product findById(String id) {
-        return productData.stream()
-                          .filter(product -> product.getProductId().equals(id))
-                          .findFirst()
-                          .orElse(null);
+        return store.findById(id);
     }
 
     @Override
     public Product update(Product updatedProduct) {
-        for (int i = 0; i < productData.size(); i++) {
-            if (productData.get(i).getProductId().equals(updatedProduct.getProductId())) {
-                productData.set(i, updatedProduct);
-                return updatedProduct;
+        return store.update(updatedProduct);
+    }
+
+    @Override
+    public void delete(String id) {
+        store.delete(id);
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        return store.createAll(products);
+    }
+
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        return store.updateAll(products);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        store.deleteAll(ids);
+    }
+
+    @Override
+    public CursorPage<Product> findPage(String cursor, int size) {
+        return store.findPage(cursor, size);
+    }
+
+    @Override
+    public CursorPage<Product> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return quantityIndex.findPage(min, max, descending, cursor, size);
+    }
+
+    // Retried with the rest of the CAS loop, so concurrent adjustments never overwrite each other
+    @Override
+    public Product adjustQuantity(String id, int delta) {
+        if (id == null) {
+            return null;
+        }
+        List<RepositoryChange<Product>> changes = store.publish(List.of(id), (snapshot, i) -> {
+            Product current = snapshot.findById(id);
+            long quantity = current == null ? -1 : (long) current.getProductQuantity() + delta;
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return snapshot;
             }
+            // Published products are shared with readers, so the change goes into a copy
+            Product adjusted = current.copy();
+            adjusted.setProductQuantity((int) quantity);
+            return snapshot.replace(id, adjusted);
+        });
+        return changes.isEmpty() ? null : store.copyOf(changes.get(0).current);
+    }
+
+    // Every step sees the snapshot the others are applied to, so one refusal drops the whole batch
+    @Override
+    public List<Product> adjustQuantities(Map<String, Integer> deltas) {
+        List<String> ids = new ArrayList<>(deltas.keySet());
+        List<RepositoryChange<Product>> changes = store.publish(ids, (snapshot, i) -> {
+            String id = ids.get(i);
+            Product current = id == null ? null : snapshot.findById(id);
+            long quantity = current == null ? -1 : (long) current.getProductQuantity() + deltas.get(id);
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return null;
+            }
+            Product adjusted = current.copy();
+            adjusted.setProductQuantity((int) quantity);
+            return snapshot.replace(id, adjusted);
+        });
+        if (changes.size() < ids.size()) {
+            return null;
         }
-        return null;
+        List<Product> adjusted = new ArrayList<>(changes.size());
+        for (RepositoryChange<Product> change : changes) {
+            adjusted.add(store.copyOf(change.current));
+        }
+        return adjusted;
     }
 
     @Override
-    public void delete(String id) {
-        productData.removeIf(product -> product.getProductId().equals(id));
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        return nameIndex.findByPrefix(prefix, limit);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String text, int limit) {
+        return nameIndex.findContaining(text, limit);
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public int count() {
+        return store.count();
+    }
+
+    @Override
+    public void addListener(RepositoryListener<Product> listener) {
+        store.addListener(listener);
+    }
+
+    @Override
+    public void markReadOnly(Exception cause) {
+        store.markReadOnly(cause);
     }
 }
@@ -0,0 +1,383 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable mode for {@link IProductRepository}: every create, update and delete
+ * is appended to a local write-ahead log, and the catalog is rebuilt from the
+ * latest snapshot plus the log tail on startup.
+ *
+ * <p>Records are fsynced in groups, either once {@code sync-batch-size} records
+ * are pending or every {@code sync-interval-ms}, so a crash loses at most that
+ * window. Once the log holds {@code compact-threshold} records it is rotated
+ * and folded into a new snapshot in the background. A rotated log whose
+ * compaction failed stays on disk under its own name and is folded in by the
+ * next compaction.
+ *
+ * <p>Every record carries the version of the write, and replay keeps the
+ * highest version per product. Listener calls from concurrent writers may
+ * therefore reach the log out of order without affecting the outcome.
+ *
+ * <p>Once an append or an fsync fails the log can no longer tell which records
+ * reached the disk. The repository is then marked read-only, so later writes
+ * fail for their callers instead of being acknowledged without being logged,
+ * until the next restart replays what survived. Writes already acknowledged
+ * are lost only as far as the sync window allows.
+ */
+@Component
+@ConditionalOnProperty(name = "eshop.product.wal.enabled", havingValue = "true")
+public class ProductWriteAheadLog implements RepositoryListener<Product> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductWriteAheadLog.class);
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String ROTATED_PREFIX = "products.wal.compacting";
+    // op, version, id and name as modified UTF-8 of at most 65535 bytes each, presence flag, quantity
+    private static final int MAX_PAYLOAD_BYTES = 1 + 8 + 2 + 65535 + 1 + 2 + 65535 + 4;
+
+    private final IProductRepository productRepository;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final Path walDirectory;
+    private final int syncBatchSize;
+    private final long compactThreshold;
+    private final ScheduledExecutorService background;
+
+    // A lock rather than a monitor: on Java 21 a virtual thread blocked in fsync
+    // inside synchronized would pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Added to repository versions so versions keep increasing across restarts
+    private final long versionBase;
+
+    private FileChannel channel;
+    private DataOutputStream out;
+    private int unsyncedRecords;
+    private long recordsInLog;
+    private boolean compacting;
+    private long rotations;
+    private IOException syncFailure;
+
+    public ProductWriteAheadLog(IProductRepository productRepository,
+                                @Value("${eshop.product.wal.directory:data/wal}") String directory,
+                                @Value("${eshop.product.wal.sync-batch-size:64}") int syncBatchSize,
+                                @Value("${eshop.product.wal.sync-interval-ms:50}") long syncIntervalMs,
+                                @Value("${eshop.product.wal.compact-threshold:100000}") long compactThreshold)
+            throws IOException {
+        this.productRepository = productRepository;
+        this.walDirectory = Paths.get(directory);
+        Files.createDirectories(walDirectory);
+        this.snapshotFile = walDirectory.resolve("products.snapshot");
+        this.logFile = walDirectory.resolve("products.wal");
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+        this.compactThreshold = Math.max(1, compactThreshold);
+
+        // Fold everything left by the previous run into one snapshot before accepting writes
+        Map<String, LogEntry> state = compact(true);
+        long maxVersion = 0;
+        List<Product> restored = new ArrayList<>(state.size());
+        for (LogEntry entry : state.values()) {
+            maxVersion = Math.max(maxVersion, entry.version);
+            if (entry.product != null) {
+                restored.add(entry.product);
+            }
+        }
+        // One batch, so the catalog is published once instead of once per logged product
+        productRepository.createAll(restored);
+        this.versionBase = maxVersion;
+
+        openLog();
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-wal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, syncIntervalMs);
+        background.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        productRepository.addListener(this);
+    }
+
+    @Override
+    public void onChange(String id, Product previous, Product current, long version) {
+        byte[] record = encode(current == null ? DELETE : PUT, versionBase + version, id, current);
+        lock.lock();
+        try {
+            if (syncFailure != null) {
+                throw new IOException("Product write-ahead log stopped after a failed sync", syncFailure);
+            }
+            out.write(record);
+            recordsInLog++;
+            if (++unsyncedRecords >= syncBatchSize) {
+                sync();
+            }
+            if (recordsInLog >= compactThreshold && !compacting) {
+                rotate();
+            }
+        } catch (IOException e) {
+            // This write is already visible and only its listener call fails; the ones after it are refused
+            productRepository.markReadOnly(e);
+            throw new UncheckedIOException("Could not append to product write-ahead log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        // Lets a pending compaction finish, periodic syncs are cancelled
+        background.shutdown();
+        background.awaitTermination(1, TimeUnit.MINUTES);
+        lock.lock();
+        try {
+            sync();
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openLog() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    private void sync() throws IOException {
+        lock.lock();
+        try {
+            if (unsyncedRecords == 0) {
+                return;
+            }
+            out.flush();
+            channel.force(false);
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            if (syncFailure == null) {
+                syncFailure = e;
+                productRepository.markReadOnly(e);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs on the fixed-delay schedule, which a thrown exception would cancel for good
+    private void syncQuietly() {
+        lock.lock();
+        try {
+            if (syncFailure == null) {
+                sync();
+            }
+        } catch (IOException e) {
+            LOG.error("Could not sync product write-ahead log; the product repository is now read-only", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void rotate() throws IOException {
+        sync();
+        out.close();
+        // A fresh name each time, so a log left over from a failed compaction is never replaced
+        Path rotated;
+        do {
+            rotated = walDirectory.resolve(ROTATED_PREFIX + "." + ++rotations);
+        } while (Files.exists(rotated));
+        Files.move(logFile, rotated, StandardCopyOption.ATOMIC_MOVE);
+        openLog();
+        recordsInLog = 0;
+        compacting = true;
+        background.execute(() -> {
+            try {
+                compact(false);
+            } catch (IOException | RuntimeException e) {
+                // Nothing waits on this task, so a thrown exception would vanish with it; the
+                // rotated log stays on disk and is folded in by the next compaction or start
+                LOG.error("Could not compact product write-ahead log", e);
+            } finally {
+                lock.lock();
+                try {
+                    compacting = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Merges the snapshot with every rotated log, and on startup also the live
+     * log, into a new snapshot and returns the merged state. Tombstones are kept for one compaction so that
+     * a late record for a deleted product cannot bring it back, and are dropped
+     * once they come from the previous snapshot.
+     */
+    private Map<String, LogEntry> compact(boolean includeLiveLog) throws IOException {
+        Map<String, LogEntry> state = new LinkedHashMap<>();
+        replay(snapshotFile, state, true);
+        List<Path> rotated = rotatedLogs();
+        for (Path log : rotated) {
+            replay(log, state, false);
+        }
+        if (includeLiveLog) {
+            replay(logFile, state, false);
+        }
+
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream snapshotOut = new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), 64 * 1024);
+            for (Map.Entry<String, LogEntry> entry : state.entrySet()) {
+                LogEntry logEntry = entry.getValue();
+                if (logEntry.product == null && logEntry.fromSnapshot) {
+                    continue;
+                }
+                byte op = logEntry.product == null ? DELETE : PUT;
+                snapshotOut.write(encode(op, logEntry.version, entry.getKey(), logEntry.product));
+            }
+            snapshotOut.flush();
+            snapshotChannel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path log : rotated) {
+            Files.deleteIfExists(log);
+        }
+        if (includeLiveLog) {
+            Files.deleteIfExists(logFile);
+        }
+        return state;
+    }
+
+    // Every rotated log, including any that an earlier failed compaction left behind
+    private List<Path> rotatedLogs() throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(ROTATED_PREFIX)).toList();
+        }
+    }
+
+    // Last-writer-wins per product id; stops at the first torn or corrupt record
+    static void replay(Path file, Map<String, LogEntry> state, boolean fromSnapshot) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long remaining = Files.size(file);
+        try (InputStream fileIn = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn, 64 * 1024))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    long checksum = in.readInt() & 0xFFFFFFFFL;
+                    remaining -= 8;
+                    // A torn or corrupt header must not size the allocation
+                    if (length <= 0 || length > MAX_PAYLOAD_BYTES || length > remaining) {
+                        return;
+                    }
+                    remaining -= length;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    if (crc.getValue() != checksum) {
+                        return;
+                    }
+                } catch (EOFException e) {
+                    return;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte op = record.readByte();
+                long version = record.readLong();
+                String id = record.readUTF();
+                Product product = null;
+                if (op == PUT) {
+                    product = new Product();
+                    product.setProductId(id);
+                    product.setProductName(record.readBoolean() ? record.readUTF() : null);
+                    product.setProductQuantity(record.readInt());
+                }
+                LogEntry existing = state.get(id);
+                if (existing == null || version > existing.version) {
+                    state.put(id, new LogEntry(version, product, fromSnapshot));
+                }
+            }
+        }
+    }
+
+    static byte[] encode(byte op, long version, String id, Product product) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(op);
+            payload.writeLong(version);
+            payload.writeUTF(id);
+            if (op == PUT) {
+                payload.writeBoolean(product.getProductName() != null);
+                if (product.getProductName() != null) {
+                    payload.writeUTF(product.getProductName());
+                }
+                payload.writeInt(product.getProductQuantity());
+            }
+            byte[] body = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(body.length + 8);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            record.writeInt(body.length);
+            record.writeInt((int) crc.getValue());
+            record.write(body);
+            return recordBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static final class LogEntry {
+        final long version;
+        final Product product;
+        final boolean fromSnapshot;
+
+        LogEntry(long version, Product product, boolean fromSnapshot) {
+            this.version = version;
+            this.product = product;
+            this.fromSnapshot = fromSnapshot;
+        }
+    }
+}
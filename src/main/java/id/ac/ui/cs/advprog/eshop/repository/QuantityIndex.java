@@ -0,0 +1,150 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Ordered secondary index over an item's quantity: a skip list of
+ * (quantity, id) keys, so a range or top-N query walks only the keys it
+ * returns instead of sorting the whole catalog. The object and mapped engines
+ * feed it from their change listener, the same way as {@link ProductNameIndex};
+ * the columnar engine keeps its rows in a {@link SortedRows} of the same order
+ * and shares the cursor format.
+ */
+final class QuantityIndex<T> {
+
+    private final Function<String, T> lookup;
+    private final ToIntFunction<T> quantityOf;
+    private final ConcurrentMap<String, Key> indexedKeys = new ConcurrentHashMap<>();
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    QuantityIndex(Function<String, T> lookup, ToIntFunction<T> quantityOf) {
+        this.lookup = lookup;
+        this.quantityOf = quantityOf;
+    }
+
+    // Re-reads the item under the per-id lock, as ProductNameIndex.reindex does
+    void reindex(String id) {
+        indexedKeys.compute(id, (key, oldKey) -> {
+            T current = lookup.apply(id);
+            Key newKey = current == null ? null : new Key(quantityOf.applyAsInt(current), id);
+            if (newKey != null && newKey.equals(oldKey)) {
+                return oldKey;
+            }
+            if (oldKey != null) {
+                keys.remove(oldKey);
+            }
+            if (newKey != null) {
+                keys.add(newKey);
+            }
+            return newKey;
+        });
+    }
+
+    /**
+     * Returns up to {@code size} items with {@code min <= quantity <= max},
+     * ordered by quantity and then id, continuing after {@code cursor}
+     * ({@code null} for the first page). The cursor holds the last key
+     * returned, so paging neither skips nor repeats items while others change.
+     */
+    CursorPage<T> findPage(int min, int max, boolean descending, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        List<T> items = new ArrayList<>(Math.min(size, 64));
+        if (min > max) {
+            return new CursorPage<>(items, null);
+        }
+        Key after = decode(cursor);
+        NavigableSet<Key> range = keys.subSet(Key.lowest(min), true, Key.highest(max), false);
+        if (descending) {
+            range = range.descendingSet();
+        }
+        if (after != null) {
+            range = range.tailSet(after, false);
+        }
+
+        // Stale keys are walked past rather than counted, so a page only ends short at the end of the range;
+        // the cursor holds the last key examined, so the next page does not examine them again
+        Key last = null;
+        Iterator<Key> iterator = range.iterator();
+        while (items.size() < size && iterator.hasNext()) {
+            Key key = iterator.next();
+            last = key;
+            T item = lookup.apply(key.id);
+            // Skips an entry whose item changed after it was read; its new key is indexed separately
+            if (item != null && quantityOf.applyAsInt(item) == key.quantity) {
+                items.add(item);
+            }
+        }
+        return new CursorPage<>(items, iterator.hasNext() ? encode(last.quantity, last.id) : null);
+    }
+
+    static String encode(long quantity, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString((quantity + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Key decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new Key(Long.parseLong(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    // A null id sorts before every id of the same quantity, so it bounds ranges without matching an item
+    static final class Key implements Comparable<Key> {
+        final long quantity;
+        final String id;
+
+        private Key(long quantity, String id) {
+            this.quantity = quantity;
+            this.id = id;
+        }
+
+        static Key lowest(int quantity) {
+            return new Key(quantity, null);
+        }
+
+        static Key highest(int quantity) {
+            return new Key((long) quantity + 1, null);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byQuantity = Long.compare(quantity, other.quantity);
+            if (byQuantity != 0) {
+                return byQuantity;
+            }
+            if (id == null || other.id == null) {
+                return id == null ? (other.id == null ? 0 : -1) : 1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && compareTo(key) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(quantity) * 31 + (id == null ? 0 : id.hashCode());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Previous behaviour: random UUIDv4 from SecureRandom, enabled with eshop.id-generator=random
+@Component
+@ConditionalOnProperty(name = "eshop.id-generator", havingValue = "random")
+public class RandomUuidGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,50 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-width binary layout of one entity inside a {@link MappedRecordStore} slot.
+ * Implementations only use absolute buffer access so concurrent readers never
+ * disturb each other's position. Every record starts with its id, written with
+ * {@link #writeString}, which the store compares against on lookups.
+ */
+interface RecordCodec<T> {
+
+    // Bytes needed for one record, excluding the store's slot header
+    int recordSize();
+
+    String idOf(T item);
+
+    void write(ByteBuffer buffer, int offset, T item);
+
+    T read(ByteBuffer buffer, int offset);
+
+    // Bytes a string field of the given capacity occupies: a length prefix plus the UTF-8 bytes
+    static int stringSize(int maxBytes) {
+        return Short.BYTES + maxBytes;
+    }
+
+    static void writeString(ByteBuffer buffer, int offset, String value, int maxBytes, String field) {
+        if (value == null) {
+            buffer.putShort(offset, (short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(field + " is longer than " + maxBytes + " bytes");
+        }
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + Short.BYTES, bytes);
+    }
+
+    static String readString(ByteBuffer buffer, int offset) {
+        short length = buffer.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// One applied write, held until the engine has released its lock and can notify listeners
+final class RepositoryChange<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepositoryChange.class);
+
+    final String id;
+    final T previous;
+    final T current;
+    final long version;
+
+    RepositoryChange(String id, T previous, T current, long version) {
+        this.id = id;
+        this.previous = previous;
+        this.current = current;
+        this.version = version;
+    }
+
+    // The write is already visible, so a failing listener is logged and the others still hear about it
+    static <T> void notifyAll(List<RepositoryListener<T>> listeners, List<RepositoryChange<T>> changes) {
+        for (RepositoryChange<T> change : changes) {
+            for (RepositoryListener<T> listener : listeners) {
+                try {
+                    listener.onChange(change.id, change.previous, change.current, change.version);
+                } catch (RuntimeException e) {
+                    LOG.error("Repository listener failed on the change to {} at version {}",
+                            change.id, change.version, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Callback for repository writes, invoked after the change is visible to readers.
+ * Calls for different writes may overlap, so listeners must be thread-safe.
+ * An exception thrown here is logged and does not undo or fail the write.
+ */
+@FunctionalInterface
+public interface RepositoryListener<T> {
+
+    /**
+     * @param previous the item before the write, null when it was created
+     * @param current  the item after the write, null when it was deleted
+     * @param version  repository version that the write produced
+     */
+    void onChange(String id, T previous, T current, long version);
+}
@@ -0,0 +1,232 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable AVL tree keyed by insertion sequence, with subtree sizes so
+ * positional access is O(log n). Updates copy only the root-to-leaf path.
+ */
+final class SequenceTree<V> implements Iterable<V> {
+
+    private static final SequenceTree<?> EMPTY = new SequenceTree<>(null);
+
+    private final Node<V> root;
+
+    private SequenceTree(Node<V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> SequenceTree<V> empty() {
+        return (SequenceTree<V>) EMPTY;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    V get(long key) {
+        Node<V> node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    V getAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node<V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    SequenceTree<V> put(long key, V value) {
+        return new SequenceTree<>(put(root, key, value));
+    }
+
+    SequenceTree<V> remove(long key) {
+        Node<V> newRoot = remove(root, key);
+        return newRoot == root ? this : new SequenceTree<>(newRoot);
+    }
+
+    /**
+     * Appends up to {@code limit} values whose keys follow {@code after} and
+     * returns the key of the last one appended, or {@code after} if none were.
+     */
+    long collectAfter(long after, int limit, List<V> into) {
+        InOrderIterator<V> iterator = new InOrderIterator<>(root, after);
+        long lastKey = after;
+        for (int i = 0; i < limit && iterator.hasNext(); i++) {
+            Node<V> node = iterator.nextNode();
+            into.add(node.value);
+            lastKey = node.key;
+        }
+        return lastKey;
+    }
+
+    boolean hasKeyAfter(long key) {
+        Node<V> node = root;
+        while (node != null) {
+            if (node.key > key) {
+                return true;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new InOrderIterator<>(root, Long.MIN_VALUE);
+    }
+
+    private static final class Node<V> {
+        final long key;
+        final V value;
+        final Node<V> left;
+        final Node<V> right;
+        final int height;
+        final int size;
+
+        Node(long key, V value, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <V> Node<V> put(Node<V> node, long key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <V> Node<V> remove(Node<V> node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            Node<V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (key > node.key) {
+            Node<V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, remove(node.right, successor.key));
+    }
+
+    private static <V> Node<V> balance(long key, V value, Node<V> left, Node<V> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<V> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<V> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static final class InOrderIterator<V> implements Iterator<V> {
+
+        private final Deque<Node<V>> stack = new ArrayDeque<>();
+
+        // Starts at the first key greater than the given key
+        InOrderIterator(Node<V> root, long after) {
+            Node<V> node = root;
+            while (node != null) {
+                if (node.key > after) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+
+        Node<V> nextNode() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<V> node = stack.pop();
+            Node<V> next = node.right;
+            while (next != null) {
+                stack.push(next);
+                next = next.left;
+            }
+            return node;
+        }
+    }
+}
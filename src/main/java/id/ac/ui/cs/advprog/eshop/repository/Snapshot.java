@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, versioned view of a repository's contents in insertion order.
+ * Readers share the same instance without copying; writers derive the next
+ * version through {@link #put}, {@link #replace} and {@link #remove}, which
+ * reuse every part of the previous version they do not touch.
+ */
+public final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final Snapshot<?> EMPTY = new Snapshot<>(0, 0, SequenceTree.empty(), HashTrie.empty());
+
+    private final long version;
+    private final long lastSequence;
+    private final SequenceTree<T> items;
+    private final HashTrie<Long> sequences;
+
+    private Snapshot(long version, long lastSequence, SequenceTree<T> items, HashTrie<Long> sequences) {
+        this.version = version;
+        this.lastSequence = lastSequence;
+        this.items = items;
+        this.sequences = sequences;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Snapshot<T> empty() {
+        return (Snapshot<T>) EMPTY;
+    }
+
+    // Incremented by every change, so equal versions mean equal contents
+    public long getVersion() {
+        return version;
+    }
+
+    public T findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Long sequence = sequences.get(id);
+        return sequence == null ? null : items.get(sequence);
+    }
+
+    /**
+     * Returns up to {@code size} items that follow the position encoded in
+     * {@code cursor} ({@code null} for the first page). Cursors point at
+     * insertion sequences, which never shift, so paging stays stable while
+     * other requests create or delete items.
+     */
+    public CursorPage<T> findPage(String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        long after = CursorPage.decode(cursor);
+        List<T> pageItems = new ArrayList<>(Math.min(size, size()));
+        long last = items.collectAfter(after, size, pageItems);
+        String nextCursor = items.hasKeyAfter(last) ? CursorPage.encode(last) : null;
+        return new CursorPage<>(pageItems, nextCursor);
+    }
+
+    // Appends the item, or replaces it in place when the id already exists
+    Snapshot<T> put(String id, T item) {
+        Long sequence = sequences.get(id);
+        if (sequence != null) {
+            return new Snapshot<>(version + 1, lastSequence, items.put(sequence, item), sequences);
+        }
+        long next = lastSequence + 1;
+        return new Snapshot<>(version + 1, next, items.put(next, item), sequences.put(id, next));
+    }
+
+    // Returns this snapshot unchanged when the id does not exist
+    Snapshot<T> replace(String id, T item) {
+        Long sequence = sequences.get(id);
+        if (sequence == null) {
+            return this;
+        }
+        return new Snapshot<>(version + 1, lastSequence, items.put(sequence, item), sequences);
+    }
+
+    // Returns this snapshot unchanged when the id does not exist
+    Snapshot<T> remove(String id) {
+        Long sequence = sequences.get(id);
+        if (sequence == null) {
+            return this;
+        }
+        return new Snapshot<>(version + 1, lastSequence, items.remove(sequence), sequences.remove(id));
+    }
+
+    @Override
+    public T get(int index) {
+        return items.getAt(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+}
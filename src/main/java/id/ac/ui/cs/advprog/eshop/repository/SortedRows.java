@@ -0,0 +1,174 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Row numbers of a columnar store kept sorted by an order over the rows'
+ * columns. They live in {@code int} blocks of at most {@value #BLOCK_SIZE}, so
+ * an insert or removal shifts one block instead of the whole index, and the
+ * index costs 4 to 8 bytes per row where a tree or skip list would allocate an
+ * object per row.
+ *
+ * <p>A position is {@code block * BLOCK_SIZE + offset} and is only valid until
+ * the next write. Callers synchronize; the order must not change for a row
+ * while it is indexed, so a row is removed before its sort columns change.
+ */
+final class SortedRows {
+
+    static final int NONE = -1;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final IntBinaryOperator order;
+    private int[][] blocks = new int[4][];
+    private int[] sizes = new int[4];
+    private int blockCount;
+
+    SortedRows(IntBinaryOperator order) {
+        this.order = order;
+    }
+
+    void insert(int row) {
+        int position = first(other -> order.applyAsInt(other, row) > 0);
+        if (position == NONE) {
+            // Appending in order fills each block completely instead of splitting it
+            if (blockCount == 0 || sizes[blockCount - 1] == BLOCK_SIZE) {
+                addBlock(blockCount);
+            }
+            int block = blockCount - 1;
+            blocks[block][sizes[block]++] = row;
+            return;
+        }
+        int block = position / BLOCK_SIZE;
+        int offset = position % BLOCK_SIZE;
+        if (sizes[block] == BLOCK_SIZE) {
+            int half = BLOCK_SIZE / 2;
+            addBlock(block + 1);
+            System.arraycopy(blocks[block], half, blocks[block + 1], 0, BLOCK_SIZE - half);
+            sizes[block + 1] = BLOCK_SIZE - half;
+            sizes[block] = half;
+            if (offset > half) {
+                block++;
+                offset -= half;
+            }
+        }
+        System.arraycopy(blocks[block], offset, blocks[block], offset + 1, sizes[block] - offset);
+        blocks[block][offset] = row;
+        sizes[block]++;
+    }
+
+    void remove(int row) {
+        int position = first(other -> order.applyAsInt(other, row) >= 0);
+        if (position == NONE || row(position) != row) {
+            throw new IllegalStateException("Row " + row + " is not indexed");
+        }
+        int block = position / BLOCK_SIZE;
+        int offset = position % BLOCK_SIZE;
+        System.arraycopy(blocks[block], offset + 1, blocks[block], offset, sizes[block] - offset - 1);
+        if (--sizes[block] == 0) {
+            System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+            System.arraycopy(sizes, block + 1, sizes, block, blockCount - block - 1);
+            blocks[--blockCount] = null;
+        }
+    }
+
+    /**
+     * Replaces every row number r with {@code renumbered[r]}. The order does not
+     * depend on the numbers, so the entries stay sorted; they are packed into
+     * full blocks on the way.
+     */
+    void renumber(int[] renumbered) {
+        int count = 0;
+        for (int block = 0; block < blockCount; block++) {
+            count += sizes[block];
+        }
+        int packedCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[][] packed = new int[Math.max(4, packedCount)][];
+        int[] packedSizes = new int[packed.length];
+        int index = 0;
+        for (int block = 0; block < blockCount; block++) {
+            for (int offset = 0; offset < sizes[block]; offset++, index++) {
+                if (index % BLOCK_SIZE == 0) {
+                    packed[index / BLOCK_SIZE] = new int[BLOCK_SIZE];
+                }
+                packed[index / BLOCK_SIZE][index % BLOCK_SIZE] = renumbered[blocks[block][offset]];
+                packedSizes[index / BLOCK_SIZE]++;
+            }
+        }
+        blocks = packed;
+        sizes = packedSizes;
+        blockCount = packedCount;
+    }
+
+    int row(int position) {
+        return blocks[position / BLOCK_SIZE][position % BLOCK_SIZE];
+    }
+
+    // The first position whose row matches; matching rows must all come after the others
+    int first(IntPredicate matches) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (matches.test(blocks[middle][sizes[middle] - 1])) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low == blockCount) {
+            return NONE;
+        }
+        int[] block = blocks[low];
+        int from = 0;
+        int to = sizes[low] - 1;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (matches.test(block[middle])) {
+                to = middle;
+            } else {
+                from = middle + 1;
+            }
+        }
+        return low * BLOCK_SIZE + from;
+    }
+
+    // The last position whose row does not match, under the same condition as first
+    int lastBefore(IntPredicate matches) {
+        int position = first(matches);
+        return position == NONE ? last() : previous(position);
+    }
+
+    int last() {
+        return blockCount == 0 ? NONE : (blockCount - 1) * BLOCK_SIZE + sizes[blockCount - 1] - 1;
+    }
+
+    int next(int position) {
+        int block = position / BLOCK_SIZE;
+        if (position % BLOCK_SIZE + 1 < sizes[block]) {
+            return position + 1;
+        }
+        return block + 1 < blockCount ? (block + 1) * BLOCK_SIZE : NONE;
+    }
+
+    int previous(int position) {
+        if (position % BLOCK_SIZE > 0) {
+            return position - 1;
+        }
+        int block = position / BLOCK_SIZE;
+        return block > 0 ? (block - 1) * BLOCK_SIZE + sizes[block - 1] - 1 : NONE;
+    }
+
+    private void addBlock(int index) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            sizes = Arrays.copyOf(sizes, blockCount * 2);
+        }
+        System.arraycopy(blocks, index, blocks, index + 1, blockCount - index);
+        System.arraycopy(sizes, index, sizes, index + 1, blockCount - index);
+        blocks[index] = new int[BLOCK_SIZE];
+        sizes[index] = 0;
+        blockCount++;
+    }
+}
@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates UUIDv7 ids (RFC 9562): a 48-bit millisecond timestamp, a 12-bit
+ * counter and 62 random bits. Ids created later in this process sort after
+ * earlier ones, which keeps inserts clustered: the counter orders ids within a
+ * millisecond (the RFC's method 1), starting each millisecond at a random value
+ * below 2048, and the timestamp never moves back when the clock does. Ids
+ * appear in URLs and the API, so the random bits come from
+ * {@link SecureRandom} and cannot be predicted from earlier ids.
+ *
+ * <p>Threads are spread over several generators so they rarely wait on the
+ * same one, and each generator's bytes are drawn a few kilobytes at a time,
+ * which costs far less per id than a call per id.
+ */
+@Component
+@ConditionalOnProperty(name = "eshop.id-generator", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000000000000000L;
+    private static final int BUFFER_BYTES = 4096;
+    private static final int COUNTER_BITS = 12;
+    // Leaves at least 2048 increments before a counter carries into the timestamp
+    private static final long COUNTER_SEED_MASK = 0x7FFL;
+
+    private final LongSupplier clock;
+    // Timestamp and counter of the last id, shifted together so one CAS moves both
+    private final AtomicLong last = new AtomicLong();
+
+    // A power of two, so a thread id picks one with a mask
+    private final RandomStripe[] stripes =
+            new RandomStripe[Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2];
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new RandomStripe();
+        }
+    }
+
+    @Override
+    public String nextId() {
+        RandomStripe stripe = stripes[(int) (Thread.currentThread().threadId() & (stripes.length - 1))];
+        long randomHigh;
+        long randomLow;
+        stripe.lock.lock();
+        try {
+            if (stripe.bytes.remaining() < 2 * Long.BYTES) {
+                stripe.random.nextBytes(stripe.bytes.array());
+                stripe.bytes.clear();
+            }
+            randomHigh = stripe.bytes.getLong();
+            randomLow = stripe.bytes.getLong();
+        } finally {
+            stripe.lock.unlock();
+        }
+        long stamp = nextStamp(randomHigh & COUNTER_SEED_MASK);
+        long mostSignificant = ((stamp >>> COUNTER_BITS) << 16) | VERSION_7 | (stamp & 0x0FFFL);
+        long leastSignificant = VARIANT_RFC | (randomLow >>> 2);
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+
+    // A new millisecond starts from the seed; otherwise, or when the clock went back, the last one plus one.
+    // A counter that runs out carries into the timestamp, which the clock catches up with shortly.
+    private long nextStamp(long seed) {
+        long candidate = (clock.getAsLong() << COUNTER_BITS) | seed;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = (candidate >>> COUNTER_BITS) > (previous >>> COUNTER_BITS) ? candidate : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+        return next;
+    }
+
+    // A lock rather than a monitor, so a virtual thread refilling the buffer does not pin its carrier
+    private static final class RandomStripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom random;
+        // Starts exhausted, so the first id triggers the first draw
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES).position(BUFFER_BYTES);
+
+        RandomStripe() {
+            try {
+                // DRBG instances are independent, whereas every NativePRNG instance shares one locked source
+                this.random = SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG SecureRandom is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+// Refuses writes once a repository was marked read-only; reads are never affected
+final class WriteGuard {
+
+    private volatile Exception cause;
+
+    // The first cause is kept, later ones describe the same outage
+    void markReadOnly(Exception cause) {
+        if (this.cause == null) {
+            this.cause = cause;
+        }
+    }
+
+    void check() {
+        Exception failure = cause;
+        if (failure != null) {
+            throw new IllegalStateException("Repository is read-only after a failure", failure);
+        }
+    }
+}
@@ -1,11 +1,38 @@
 package id.ac.ui.cs.advprog.eshop.service;
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 public interface CarService {
     public Car create(Car car);
+    // Null when a car with that id already exists; the check and the write are one atomic step
+    Car createIfAbsent(Car car);
     public List<Car> findAll();
+    CursorPage<Car> findPage(String cursor, int size);
+    // Cars with min <= quantity <= max ordered by quantity, from the repository's quantity index
+    CursorPage<Car> findPageByQuantity(int min, int max, boolean descending, String cursor, int size);
+    List<Car> findTopByQuantity(int limit, boolean descending);
     Car findById(String carId);
-    public void update(String carId, Car car);
+    // Deltas from every write after the resume token, or from now without one; onReady runs when more arrive
+    ChangeSubscription<Car> subscribeToChanges(String resumeToken, Runnable onReady);
+    // Cars below their reorder threshold, lowest stock first, kept current on every write
+    List<Car> findLowStock();
+    int getLowStockThreshold(String carId);
+    // A null threshold falls back to the default, eshop.stock.low-threshold
+    void setLowStockThreshold(String carId, Integer threshold);
+    void setDefaultLowStockThreshold(int threshold);
+    void addLowStockListener(LowStockListener<Car> listener);
+    // The car as stored, or null when there is no car with that id
+    public Car update(String carId, Car car);
     public void deleteCarById(String carId);
+    List<Car> createAll(List<Car> cars);
+    List<Car> updateAll(List<Car> cars);
+    void deleteAll(List<String> carIds);
+    // Streams carName, carColor and carQuantity columns (carId optional); returns the rows imported
+    int importCsv(Reader csv) throws IOException;
+    // Moves on every write; used for conditional GETs
+    long getVersion();
+    long getLastModified();
 }
@@ -1,40 +1,171 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
 import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 @Service
 public class CarServiceImpl implements CarService {
 
+    // Rows handed to the repository per batch during a CSV import
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     @Autowired
     private ICarRepository carRepository;
 
+    private volatile long lastModified = System.currentTimeMillis();
+
+    // Cars below this quantity are low on stock unless given a threshold of their own
+    @Value("${eshop.stock.low-threshold:5}")
+    private int lowStockThreshold = 5;
+
+    private final LowStockWatchlist<Car> lowStock = new LowStockWatchlist<>(Car::getCarId,
+            id -> carRepository.findById(id), visitor -> carRepository.forEachItem(visitor),
+            Car::getCarQuantity, lowStockThreshold);
+
+    // Changes kept for clients resuming the change feed, and how many items may wait for one
+    // client before it is told to reload instead
+    @Value("${eshop.changes.history:10000}")
+    private int changeHistory = 10_000;
+
+    @Value("${eshop.changes.buffer:1000}")
+    private int changeBuffer = 1_000;
+
+    private ChangeFeed<Car> changes;
+
+    @PostConstruct
+    void trackRepositoryChanges() {
+        changes = new ChangeFeed<>(changeHistory, changeBuffer);
+        carRepository.addListener((id, previous, current, version) -> {
+            lastModified = System.currentTimeMillis();
+            if (current == null) {
+                lowStock.forget(id);
+            } else {
+                lowStock.refresh(id);
+            }
+            changes.publish(id, previous, current, version);
+        });
+        // Also the one scan that lists cars already stored, e.g. in mapped files
+        lowStock.setDefaultThreshold(lowStockThreshold);
+    }
+
     @Override
     public Car create(Car car) {
         return carRepository.create(car);
     }
 
+    @Override
+    public Car createIfAbsent(Car car) {
+        return carRepository.createIfAbsent(car);
+    }
+
     @Override
     public List<Car> findAll() {
         return carRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Car> findPage(String cursor, int size) {
+        return carRepository.findPage(cursor, size);
+    }
+
+    @Override
+    public CursorPage<Car> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return carRepository.findPageByQuantity(min, max, descending, cursor, size);
+    }
+
+    @Override
+    public List<Car> findTopByQuantity(int limit, boolean descending) {
+        return carRepository.findTopByQuantity(limit, descending);
+    }
+
+    @Override
+    public ChangeSubscription<Car> subscribeToChanges(String resumeToken, Runnable onReady) {
+        return changes.subscribe(resumeToken, onReady);
+    }
+
+    @Override
+    public List<Car> findLowStock() {
+        return lowStock.findLow();
+    }
+
+    @Override
+    public int getLowStockThreshold(String carId) {
+        return lowStock.getThreshold(carId);
+    }
+
+    @Override
+    public void setLowStockThreshold(String carId, Integer threshold) {
+        lowStock.setThreshold(carId, threshold);
+    }
+
+    @Override
+    public void setDefaultLowStockThreshold(int threshold) {
+        lowStock.setDefaultThreshold(threshold);
+    }
+
+    @Override
+    public void addLowStockListener(LowStockListener<Car> listener) {
+        lowStock.addListener(listener);
+    }
+
     @Override
     public Car findById(String carId) {
         return carRepository.findById(carId);
     }
 
     @Override
-    public void update(String carId, Car car) {
-        carRepository.update(car);
+    public Car update(String carId, Car car) {
+        return carRepository.update(car);
     }
 
     @Override
     public void deleteCarById(String carId) {
         carRepository.delete(carId);
     }
+
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        return carRepository.createAll(cars);
+    }
+
+    @Override
+    public List<Car> updateAll(List<Car> cars) {
+        return carRepository.updateAll(cars);
+    }
+
+    @Override
+    public void deleteAll(List<String> carIds) {
+        carRepository.deleteAll(carIds);
+    }
+
+    @Override
+    public int importCsv(Reader csv) throws IOException {
+        return CsvRowReader.importAll(csv, IMPORT_BATCH_SIZE, row -> {
+            Car car = new Car();
+            car.setCarId(row.get("carId"));
+            car.setCarName(row.get("carName"));
+            car.setCarColor(row.get("carColor"));
+            car.setCarQuantity(row.getInt("carQuantity"));
+            return car;
+        }, carRepository::createAll, "carName", "carColor", "carQuantity");
+    }
+
+    @Override
+    public long getVersion() {
+        return carRepository.getVersion();
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
 }
@@ -0,0 +1,169 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IRepository;
+import id.ac.ui.cs.advprog.eshop.repository.RepositoryListener;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Catalog figures for the home page, kept current from repository changes so
+ * that reading them never touches the items. Each write moves the counters by
+ * the difference between the item before and after it; those adjustments
+ * commute, so overlapping writes still add up. {@link #recount()} works the
+ * figures out from scratch to check that the two agree.
+ *
+ * <p>At startup the listeners are registered before the stored items are
+ * counted, and the count is taken at a known repository version; changes up to
+ * that version are already in it and are skipped, later ones are applied.
+ */
+@Component
+public class CatalogAggregates {
+
+    private static final String NO_COLOR = "";
+
+    private final IProductRepository productRepository;
+    private final ICarRepository carRepository;
+
+    private final LongAdder productCount = new LongAdder();
+    private final LongAdder productUnits = new LongAdder();
+    private final LongAdder carCount = new LongAdder();
+    private final LongAdder carUnits = new LongAdder();
+    private final ConcurrentMap<String, Long> carsPerColor = new ConcurrentHashMap<>();
+
+    public CatalogAggregates(IProductRepository productRepository, ICarRepository carRepository) {
+        this.productRepository = productRepository;
+        this.carRepository = carRepository;
+    }
+
+    // Counts what is already stored, e.g. in mapped files, without losing writes made meanwhile
+    @PostConstruct
+    void trackRepositoryChanges() {
+        track(productRepository, this::countProduct);
+        track(carRepository, this::countCar);
+    }
+
+    public CatalogTotals getTotals() {
+        return new CatalogTotals(productCount.sum(), productUnits.sum(), carCount.sum(), carUnits.sum(),
+                carsPerColor);
+    }
+
+    // Read from the repository's quantity index rather than counted here
+    public List<Product> findTopProducts(int limit) {
+        return productRepository.findTopByQuantity(limit, true);
+    }
+
+    // The same figures from a full scan of both repositories
+    public CatalogTotals recount() {
+        long[] products = new long[2];
+        productRepository.forEachItem(product -> {
+            products[0]++;
+            products[1] += product.getProductQuantity();
+        });
+        long[] cars = new long[2];
+        Map<String, Long> colors = new HashMap<>();
+        carRepository.forEachItem(car -> {
+            cars[0]++;
+            cars[1] += car.getCarQuantity();
+            colors.merge(colorOf(car), 1L, Long::sum);
+        });
+        return new CatalogTotals(products[0], products[1], cars[0], cars[1], colors);
+    }
+
+    private void countProduct(Product product, int sign) {
+        if (product == null) {
+            return;
+        }
+        productCount.add(sign);
+        productUnits.add((long) sign * product.getProductQuantity());
+    }
+
+    private void countCar(Car car, int sign) {
+        if (car == null) {
+            return;
+        }
+        carCount.add(sign);
+        carUnits.add((long) sign * car.getCarQuantity());
+        // A color whose count drops to zero is removed rather than shown as zero
+        carsPerColor.compute(colorOf(car), (color, count) -> {
+            long updated = (count == null ? 0 : count) + sign;
+            return updated == 0 ? null : updated;
+        });
+    }
+
+    private static String colorOf(Car car) {
+        return car.getCarColor() == null ? NO_COLOR : car.getCarColor();
+    }
+
+    private static <T> void track(IRepository<T> repository, ObjIntConsumer<T> count) {
+        StartupTracker<T> tracker = new StartupTracker<>(count);
+        repository.addListener(tracker);
+        // A scan during which the version did not move is exactly the state at that version
+        List<T> items;
+        long version;
+        do {
+            version = repository.getVersion();
+            items = new ArrayList<>();
+            repository.forEachItem(items::add);
+        } while (repository.getVersion() != version);
+        for (T item : items) {
+            count.accept(item, 1);
+        }
+        tracker.countedUpTo(version);
+    }
+
+    // Holds changes back until the initial count is known, then applies those it does not include
+    private static final class StartupTracker<T> implements RepositoryListener<T> {
+        private final ObjIntConsumer<T> count;
+        private final List<Runnable> held = new ArrayList<>();
+        private volatile long countedVersion = -1;
+
+        StartupTracker(ObjIntConsumer<T> count) {
+            this.count = count;
+        }
+
+        @Override
+        public void onChange(String id, T previous, T current, long version) {
+            if (countedVersion < 0) {
+                synchronized (held) {
+                    if (countedVersion < 0) {
+                        held.add(() -> apply(previous, current, version));
+                        return;
+                    }
+                }
+            }
+            apply(previous, current, version);
+        }
+
+        void countedUpTo(long version) {
+            synchronized (held) {
+                countedVersion = version;
+                held.forEach(Runnable::run);
+                held.clear();
+            }
+        }
+
+        private void apply(T previous, T current, long version) {
+            if (version > countedVersion) {
+                if (previous != null) {
+                    count.accept(previous, -1);
+                }
+                if (current != null) {
+                    count.accept(current, 1);
+                }
+            }
+        }
+    }
+}
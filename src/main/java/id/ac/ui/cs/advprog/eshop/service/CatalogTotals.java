@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+@Getter
+public class CatalogTotals {
+
+    private final long productCount;
+    private final long productUnits;
+    private final long carCount;
+    private final long carUnits;
+
+    // Number of cars of each color, by color name; cars without one are counted under ""
+    private final Map<String, Long> carsPerColor;
+
+    public CatalogTotals(long productCount, long productUnits, long carCount, long carUnits,
+                         Map<String, Long> carsPerColor) {
+        this.productCount = productCount;
+        this.productUnits = productUnits;
+        this.carCount = carCount;
+        this.carUnits = carUnits;
+        this.carsPerColor = Collections.unmodifiableMap(new TreeMap<>(carsPerColor));
+    }
+
+    // Every product and car is its own SKU
+    public long getSkuCount() {
+        return productCount + carCount;
+    }
+
+    public long getUnitsInStock() {
+        return productUnits + carUnits;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CatalogTotals totals)) {
+            return false;
+        }
+        return productCount == totals.productCount && productUnits == totals.productUnits
+                && carCount == totals.carCount && carUnits == totals.carUnits
+                && carsPerColor.equals(totals.carsPerColor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productCount, productUnits, carCount, carUnits, carsPerColor);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogTotals{products=" + productCount + ", productUnits=" + productUnits + ", cars=" + carCount
+                + ", carUnits=" + carUnits + ", carsPerColor=" + carsPerColor + "}";
+    }
+}
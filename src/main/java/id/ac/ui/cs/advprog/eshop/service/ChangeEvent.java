@@ -0,0 +1,63 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * One entry of a change feed. The token names a position the client has
+ * fully caught up to once it has applied this change, and is what a
+ * reconnecting client sends back to resume.
+ */
+@Getter
+public class ChangeEvent<T> {
+
+    public enum Type { CREATED, UPDATED, DELETED, RESET }
+
+    private final String token;
+    private final Type type;
+
+    // Null for a reset, which tells the client to reload instead
+    private final String id;
+
+    // The item after the change, null when it was deleted
+    private final T item;
+
+    // Repository version the change produced; later changes to an item have higher versions
+    private final long version;
+
+    @Getter(AccessLevel.NONE)
+    final long sequence;
+
+    ChangeEvent(String token, long sequence, long version, Type type, String id, T item) {
+        this.token = token;
+        this.sequence = sequence;
+        this.version = version;
+        this.type = type;
+        this.id = id;
+        this.item = item;
+    }
+
+    static <T> ChangeEvent<T> reset(String token, long sequence) {
+        return new ChangeEvent<>(token, sequence, 0, Type.RESET, null, null);
+    }
+
+    ChangeEvent<T> withToken(String token) {
+        return new ChangeEvent<>(token, sequence, version, type, id, item);
+    }
+
+    /**
+     * The single change a client needs in place of this one followed by
+     * {@code next} for the same item, or null when the two cancel out.
+     */
+    ChangeEvent<T> then(ChangeEvent<T> next) {
+        if (type == Type.CREATED) {
+            return next.type == Type.DELETED
+                    ? null
+                    : new ChangeEvent<>(next.token, next.sequence, next.version, Type.CREATED, id, next.item);
+        }
+        if (type == Type.DELETED && next.type == Type.CREATED) {
+            return new ChangeEvent<>(next.token, next.sequence, next.version, Type.UPDATED, id, next.item);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,152 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Repository changes numbered in the order they were applied, kept in a ring
+ * that every {@link ChangeSubscription} reads on its own. Writers only claim a
+ * number and store the change in its place, so they never wait on a lock or
+ * touch a subscriber. A client that reconnects with the token of the last
+ * change it saw gets what it missed, as long as the ring still holds it,
+ * instead of reloading the catalog. A token that is too old, from before a
+ * restart or not understood gets a reset.
+ *
+ * <p>Repositories call their listeners after the write is visible and outside
+ * any lock, so two writes to one item can arrive here in either order. A
+ * change older than the last one published for its item is dropped, going by
+ * the repository version; the window for that is the time between a write and
+ * its listener call, far shorter than the retained history.
+ */
+final class ChangeFeed<T> {
+
+    // Tokens from before a restart carry another epoch and cannot be resumed
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int bufferSize;
+
+    // The change numbered n sits at n modulo the length until a later lap replaces it
+    private final AtomicReferenceArray<ChangeEvent<T>> history;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<ChangeSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+
+    // Latest version published for each item that still has a change in the history
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    ChangeFeed(int historySize, int bufferSize) {
+        this.history = new AtomicReferenceArray<>(Math.max(1, historySize));
+        this.bufferSize = bufferSize;
+    }
+
+    void publish(String id, T previous, T current, long version) {
+        ChangeEvent.Type type = previous == null ? ChangeEvent.Type.CREATED
+                : current == null ? ChangeEvent.Type.DELETED : ChangeEvent.Type.UPDATED;
+        // Numbered while the item's entry is held, so one item's changes are numbered in version order
+        long[] claimed = new long[1];
+        versions.compute(id, (key, published) -> {
+            if (published != null && published >= version) {
+                return published;
+            }
+            claimed[0] = sequence.incrementAndGet();
+            return version;
+        });
+        if (claimed[0] == 0) {
+            return;
+        }
+        store(new ChangeEvent<>(token(claimed[0]), claimed[0], version, type, id, current));
+        if (!subscriptions.isEmpty() && wakeScheduled.compareAndSet(false, true)) {
+            // Subscribers are told on a thread of their own, once for any number of changes in between
+            Thread.ofVirtual().name("change-feed").start(this::wakeSubscribers);
+        }
+    }
+
+    private void store(ChangeEvent<T> event) {
+        int index = indexOf(event.sequence);
+        ChangeEvent<T> expired;
+        do {
+            expired = history.get(index);
+            if (expired != null && expired.sequence > event.sequence) {
+                // A whole lap overtook this writer; readers see the gap and reset
+                return;
+            }
+        } while (!history.compareAndSet(index, expired, event));
+        if (expired != null) {
+            versions.remove(expired.getId(), expired.getVersion());
+        }
+    }
+
+    private void wakeSubscribers() {
+        wakeScheduled.set(false);
+        for (ChangeSubscription<T> subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /**
+     * Starts a subscription after the change named by the resume token, or at
+     * the current position when there is none. Changes already waiting are
+     * left for the caller to poll; onReady runs after later changes.
+     */
+    ChangeSubscription<T> subscribe(String resumeToken, Runnable onReady) {
+        long position = sequence.get();
+        ChangeSubscription<T> subscription;
+        if (resumeToken != null && !resumeToken.isBlank()) {
+            long after = resumePoint(resumeToken, position);
+            subscription = new ChangeSubscription<>(this, bufferSize, onReady, after < 0 ? position : after);
+            if (after < 0) {
+                subscription.reset(ChangeEvent.reset(token(position), position));
+            }
+        } else {
+            subscription = new ChangeSubscription<>(this, bufferSize, onReady, position);
+        }
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(ChangeSubscription<T> subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    // The change held where the one numbered sequence belongs: that one, an older one while it is
+    // not stored yet, a newer one once it was overwritten, or null
+    ChangeEvent<T> at(long sequence) {
+        return history.get(indexOf(sequence));
+    }
+
+    long position() {
+        return sequence.get();
+    }
+
+    String token(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % history.length());
+    }
+
+    // The sequence to resume after, or -1 when the changes since are not all retained
+    private long resumePoint(String token, long position) {
+        int dash = token.lastIndexOf('-');
+        if (dash < 0 || !token.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        long after;
+        try {
+            after = Long.parseLong(token.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long oldest = Math.max(1, position - history.length() + 1);
+        return after < oldest - 1 || after > position ? -1 : after;
+    }
+}
@@ -0,0 +1,49 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Turns a change subscription into a stream. Changes are only taken from the
+ * subscription as the subscriber requests them, so while a client is slow they
+ * stay in its bounded, coalescing buffer rather than queueing in the stream.
+ */
+final class ChangeFlux {
+
+    // Changes taken from the subscription per step of a drain
+    static final int DRAIN_BATCH_SIZE = 100;
+
+    private ChangeFlux() {
+    }
+
+    static <T> Flux<ChangeEvent<T>> of(BiFunction<String, Runnable, ChangeSubscription<T>> subscribe,
+                                       String resumeToken) {
+        return Flux.create(sink -> {
+            // Drains run one at a time off the writing thread
+            Scheduler.Worker worker = Schedulers.parallel().createWorker();
+            AtomicReference<ChangeSubscription<T>> subscription = new AtomicReference<>();
+            Runnable drain = () -> {
+                ChangeSubscription<T> current = subscription.get();
+                long requested;
+                while (current != null && (requested = sink.requestedFromDownstream()) > 0) {
+                    List<ChangeEvent<T>> events = current.poll((int) Math.min(requested, DRAIN_BATCH_SIZE));
+                    if (events.isEmpty()) {
+                        return;
+                    }
+                    events.forEach(sink::next);
+                }
+            };
+            subscription.set(subscribe.apply(resumeToken, () -> worker.schedule(drain)));
+            sink.onRequest(requested -> worker.schedule(drain));
+            sink.onDispose(() -> {
+                subscription.get().close();
+                worker.dispose();
+            });
+        });
+    }
+}
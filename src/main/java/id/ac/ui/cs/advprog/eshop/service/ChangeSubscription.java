@@ -0,0 +1,137 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * One client's place in a change feed: the changes it has not taken yet, at
+ * most one per item. Each poll first reads what the feed published since the
+ * last one; a newer change to an item that is still waiting is merged into it
+ * where it stands, so a slow client skips the steps in between. When more
+ * items are waiting than the buffer holds, or the feed's history moved on
+ * past changes this client had not read, they are dropped for a single reset.
+ *
+ * <p>Because merging lets a change carry state from later in the feed than
+ * the changes queued behind it, the token handed out with each change is the
+ * position just before the oldest change still waiting. A client resuming
+ * from it may see a change again, never miss one.
+ */
+public final class ChangeSubscription<T> implements AutoCloseable {
+
+    private final ChangeFeed<T> feed;
+    private final int capacity;
+    private final Runnable onReady;
+
+    // Guarded by this, and only touched by the client's own threads; in the order each item's
+    // oldest waiting change arrived
+    private final LinkedHashMap<String, Waiting<T>> pending = new LinkedHashMap<>();
+    private ChangeEvent<T> reset;
+    // The last change read from the feed
+    private long latest;
+    private boolean fellBehind;
+
+    ChangeSubscription(ChangeFeed<T> feed, int capacity, Runnable onReady, long position) {
+        this.feed = feed;
+        this.capacity = capacity;
+        this.onReady = onReady;
+        this.latest = position;
+    }
+
+    // Caller holds this; reads the feed up to the first change not stored yet
+    private void readFeed() {
+        while (true) {
+            ChangeEvent<T> event = feed.at(latest + 1);
+            if (event == null || event.sequence <= latest) {
+                return;
+            }
+            if (event.sequence > latest + 1) {
+                long position = feed.position();
+                reset(ChangeEvent.reset(feed.token(position), position));
+                fellBehind = true;
+                continue;
+            }
+            offer(event);
+        }
+    }
+
+    // Caller holds this
+    private void offer(ChangeEvent<T> event) {
+        latest = event.sequence;
+        Waiting<T> waiting = pending.get(event.getId());
+        if (waiting == null) {
+            pending.put(event.getId(), new Waiting<>(event.sequence, event));
+        } else {
+            waiting.event = waiting.event.then(event);
+            if (waiting.event == null) {
+                pending.remove(event.getId());
+            }
+        }
+        if (pending.size() > capacity) {
+            reset(ChangeEvent.reset(event.getToken(), event.sequence));
+            fellBehind = true;
+        }
+    }
+
+    synchronized void reset(ChangeEvent<T> event) {
+        pending.clear();
+        reset = event;
+        latest = event.sequence;
+    }
+
+    void signal() {
+        onReady.run();
+    }
+
+    // Takes up to max changes, the reset first when there is one
+    public synchronized List<ChangeEvent<T>> poll(int max) {
+        readFeed();
+        List<ChangeEvent<T>> events = new ArrayList<>(Math.min(max, pending.size() + 1));
+        if (reset != null && max > 0) {
+            events.add(reset.withToken(feed.token(caughtUpTo())));
+            reset = null;
+        }
+        Iterator<Waiting<T>> waiting = pending.values().iterator();
+        while (events.size() < max && waiting.hasNext()) {
+            ChangeEvent<T> event = waiting.next().event;
+            waiting.remove();
+            events.add(event.withToken(feed.token(caughtUpTo())));
+        }
+        return events;
+    }
+
+    public synchronized boolean isEmpty() {
+        if (reset != null || !pending.isEmpty()) {
+            return false;
+        }
+        ChangeEvent<T> next = feed.at(latest + 1);
+        return next == null || next.sequence <= latest;
+    }
+
+    // Whether changes were dropped for a reset because this client did not keep up
+    public synchronized boolean hasFallenBehind() {
+        return fellBehind;
+    }
+
+    @Override
+    public void close() {
+        feed.unsubscribe(this);
+    }
+
+    // Everything before the oldest change still waiting has been taken
+    private long caughtUpTo() {
+        return pending.isEmpty() ? latest : pending.values().iterator().next().first - 1;
+    }
+
+    private static final class Waiting<T> {
+
+        final long first;
+        ChangeEvent<T> event;
+
+        Waiting(long first, ChangeEvent<T> event) {
+            this.first = first;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads RFC 4180 style CSV one record at a time, so an upload never has to be
+ * held in memory. The first record is the header; columns are looked up by
+ * name, case-insensitively, and may appear in any order. Quoted fields may
+ * contain commas, doubled quotes and line breaks.
+ */
+final class CsvRowReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final StringBuilder field = new StringBuilder();
+    private List<String> row;
+    private int line = 1;
+    private int rowLine;
+
+    CsvRowReader(Reader reader, String... requiredColumns) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            // Spreadsheet exports often start with a UTF-8 byte order mark
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : requiredColumns) {
+            if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("CSV header is missing the " + column + " column");
+            }
+        }
+    }
+
+    /**
+     * Streams every row through {@code mapper} and hands them to {@code sink} in
+     * batches of {@code batchSize}. Rows before a malformed one are still
+     * imported; the exception says where the import stopped.
+     */
+    static <T> int importAll(Reader reader, int batchSize, Function<CsvRowReader, T> mapper,
+                             Consumer<List<T>> sink, String... requiredColumns) throws IOException {
+        CsvRowReader csv = new CsvRowReader(reader, requiredColumns);
+        List<T> batch = new ArrayList<>(batchSize);
+        int imported = 0;
+        while (true) {
+            T item;
+            try {
+                if (!csv.next()) {
+                    break;
+                }
+                item = mapper.apply(csv);
+            } catch (IllegalArgumentException e) {
+                sink.accept(batch);
+                imported += batch.size();
+                throw new IllegalArgumentException(e.getMessage() + " (" + imported + " rows imported before it)", e);
+            }
+            batch.add(item);
+            if (batch.size() == batchSize) {
+                sink.accept(batch);
+                imported += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            imported += batch.size();
+        }
+        return imported;
+    }
+
+    // Advances to the next non-blank record; false at the end of input
+    boolean next() throws IOException {
+        do {
+            row = readRecord();
+        } while (row != null && row.size() == 1 && row.get(0).isBlank());
+        return row != null;
+    }
+
+    // Null when the column is absent from the header or the cell is empty
+    String get(String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= row.size() || row.get(index).isEmpty()) {
+            return null;
+        }
+        return row.get(index);
+    }
+
+    int getInt(String column) {
+        String value = get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Line " + rowLine + ": " + column + " is empty");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + rowLine + ": " + column + " is not a number: " + value);
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        rowLine = line;
+        List<String> record = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Line " + rowLine + ": unterminated quoted field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+/**
+ * Turns cursor paging into a stream. The next page is only read once the
+ * subscriber has requested past the current one, so a slow client holds at
+ * most a page of items rather than the whole list.
+ */
+final class CursorFlux {
+
+    private CursorFlux() {
+    }
+
+    static <T> Flux<T> of(BiFunction<String, Integer, CursorPage<T>> pages, int batchSize) {
+        return Mono.fromCallable(() -> pages.apply(null, batchSize))
+                .expand(page -> page.getNextCursor() == null
+                        ? Mono.empty()
+                        : Mono.fromCallable(() -> pages.apply(page.getNextCursor(), batchSize)))
+                // A prefetch of one keeps the read-ahead to a single page
+                .concatMapIterable(CursorPage::getItems, 1);
+    }
+}
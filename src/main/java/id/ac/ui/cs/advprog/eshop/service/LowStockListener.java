@@ -0,0 +1,16 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+/**
+ * Callback for items crossing their low-stock threshold, invoked after the
+ * write that caused it. Calls for different items may overlap, so listeners
+ * must be thread-safe.
+ */
+@FunctionalInterface
+public interface LowStockListener<T> {
+
+    /**
+     * @param item the item after the write, null when it was deleted while low
+     * @param low  true when the item fell below its threshold, false when it recovered or was deleted
+     */
+    void onCrossing(String id, T item, boolean low);
+}
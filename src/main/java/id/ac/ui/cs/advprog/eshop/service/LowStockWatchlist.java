@@ -0,0 +1,125 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Items whose quantity is below their reorder threshold, kept current from
+ * repository changes instead of by scanning the catalog. A write costs one
+ * hash update for the item it touched, and reading the watchlist costs time in
+ * the number of items on it. Only a change of the default threshold, which
+ * can move any item, rescans everything.
+ */
+final class LowStockWatchlist<T> {
+
+    private final Function<T, String> idOf;
+    private final Function<String, T> lookup;
+    private final Consumer<Consumer<T>> forEachItem;
+    private final ToIntFunction<T> quantityOf;
+    private final Comparator<T> lowestFirst;
+
+    private volatile int defaultThreshold;
+    private final ConcurrentMap<String, Integer> thresholds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, T> low = new ConcurrentHashMap<>();
+    private final List<LowStockListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    LowStockWatchlist(Function<T, String> idOf, Function<String, T> lookup, Consumer<Consumer<T>> forEachItem,
+                      ToIntFunction<T> quantityOf, int defaultThreshold) {
+        this.idOf = idOf;
+        this.lookup = lookup;
+        this.forEachItem = forEachItem;
+        this.quantityOf = quantityOf;
+        this.lowestFirst = Comparator.comparingInt(quantityOf).thenComparing(idOf);
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    /**
+     * Re-reads the item under the per-id lock, so overlapping calls for the
+     * same id settle on its latest state, and tells listeners if that moved
+     * it on or off the watchlist.
+     */
+    void refresh(String id) {
+        List<T> current = new ArrayList<>(1);
+        boolean[] crossed = new boolean[1];
+        T nowLow = low.compute(id, (key, wasLow) -> {
+            T item = lookup.apply(id);
+            current.add(item);
+            T stillLow = item != null && quantityOf.applyAsInt(item) < getThreshold(id) ? item : null;
+            crossed[0] = (wasLow == null) != (stillLow == null);
+            return stillLow;
+        });
+        if (crossed[0]) {
+            for (LowStockListener<T> listener : listeners) {
+                listener.onCrossing(id, current.get(0), nowLow != null);
+            }
+        }
+    }
+
+    // A deleted item's own threshold goes with it, so thresholds cannot pile up for ids that are gone;
+    // kept when the id was created again in the meantime
+    void forget(String id) {
+        if (lookup.apply(id) == null) {
+            thresholds.remove(id);
+        }
+        refresh(id);
+    }
+
+    // Those already listed in case they are gone or restocked, plus every other item the scan finds
+    // low. Only those are looked up again: an item that is neither listed nor low has nothing to
+    // change, and one that turns low after the scan passed it is refreshed by its own change.
+    void rebuild() {
+        Set<String> listed = new HashSet<>(low.keySet());
+        for (String id : listed) {
+            refresh(id);
+        }
+        forEachItem.accept(item -> {
+            String id = idOf.apply(item);
+            if (!listed.contains(id) && quantityOf.applyAsInt(item) < getThreshold(id)) {
+                refresh(id);
+            }
+        });
+    }
+
+    // Lowest stock first
+    List<T> findLow() {
+        List<T> items = new ArrayList<>(low.values());
+        items.sort(lowestFirst);
+        return items;
+    }
+
+    int countLow() {
+        return low.size();
+    }
+
+    int getThreshold(String id) {
+        return thresholds.getOrDefault(id, defaultThreshold);
+    }
+
+    // A null threshold falls back to the default
+    void setThreshold(String id, Integer threshold) {
+        if (threshold == null) {
+            thresholds.remove(id);
+        } else {
+            thresholds.put(id, threshold);
+        }
+        refresh(id);
+    }
+
+    void setDefaultThreshold(int threshold) {
+        defaultThreshold = threshold;
+        rebuild();
+    }
+
+    void addListener(LowStockListener<T> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,153 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of the product repository. Products by id live
+ * in LRU segments with a size bound and a TTL. Full lists are not cached: the
+ * in-memory engine already shares its snapshot, and the mapped and columnar
+ * engines exist to keep the whole catalog off the heap.
+ *
+ * <p>Callers edit the products they are given, so the cache keeps a copy of
+ * what it loads and hands out a fresh copy on every hit.
+ *
+ * <p>Each segment counts its invalidations. A load only stores its result if
+ * no invalidation hit the segment while it was reading, so a product fetched
+ * just before an edit can never be cached after that edit's invalidation.
+ */
+@Component
+public class ProductCache {
+
+    // Small caches use one segment so the LRU order is exact
+    private static final int SEGMENTS = 16;
+    private static final int MIN_SEGMENTED_SIZE = 1_024;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public ProductCache(@Value("${eshop.product.cache.max-size:10000}") int maxSize,
+                        @Value("${eshop.product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    // A max size of zero disables caching, a non-positive TTL keeps entries until evicted
+    ProductCache(int maxSize, Duration ttl) {
+        int segmentCount = maxSize <= 0 ? 0 : maxSize >= MIN_SEGMENTED_SIZE ? SEGMENTS : 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((maxSize + segmentCount - 1) / segmentCount);
+        }
+        this.ttlNanos = ttl.isNegative() || ttl.isZero() ? 0 : ttl.toNanos();
+    }
+
+    Product get(String id, Function<String, Product> loader) {
+        if (segments.length == 0 || id == null) {
+            return loader.apply(id);
+        }
+        Segment segment = segmentFor(id);
+        long generation;
+        synchronized (segment) {
+            Entry entry = segment.get(id);
+            if (entry != null && !entry.isExpired()) {
+                hits.increment();
+                return entry.product.copy();
+            }
+            if (entry != null) {
+                segment.remove(id);
+            }
+            generation = segment.generation;
+        }
+        misses.increment();
+        Product product = loader.apply(id);
+        if (product != null) {
+            synchronized (segment) {
+                if (segment.generation == generation) {
+                    segment.put(id, new Entry(product.copy(), ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return product;
+    }
+
+    void invalidate(String id) {
+        if (segments.length == 0 || id == null) {
+            return;
+        }
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            segment.generation++;
+            segment.remove(id);
+        }
+    }
+
+    void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.clear();
+            }
+        }
+    }
+
+    public CacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(String id) {
+        int hash = id.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Entry {
+        final Product product;
+        final long expiresAt;
+
+        Entry(Product product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return expiresAt != 0 && System.nanoTime() - expiresAt > 0;
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private final class Segment extends LinkedHashMap<String, Entry> {
+        private final int capacity;
+        long generation;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
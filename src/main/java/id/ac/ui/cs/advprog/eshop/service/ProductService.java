@@ -1,13 +1,50 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     public Product create(Product product);
+    // Null when a product with that id already exists; the check and the write are one atomic step
+    Product createIfAbsent(Product product);
     public List<Product> findAll();
+    CursorPage<Product> findPage(String cursor, int size);
+    List<Product> searchByName(String query, boolean prefixOnly, int limit);
+    // Products with min <= quantity <= max ordered by quantity, from the repository's quantity index
+    CursorPage<Product> findPageByQuantity(int min, int max, boolean descending, String cursor, int size);
+    List<Product> findTopByQuantity(int limit, boolean descending);
     Product findById(String productId);
     Product update(Product product);
     void delete(String productId);
+    List<Product> createAll(List<Product> products);
+    List<Product> updateAll(List<Product> products);
+    void deleteAll(List<String> productIds);
+    // Streams productName and productQuantity columns (productId optional); returns the rows imported
+    int importCsv(Reader csv) throws IOException;
+    CacheStats getCacheStats();
+    // Deltas from every write after the resume token, or from now without one; onReady runs when more arrive
+    ChangeSubscription<Product> subscribeToChanges(String resumeToken, Runnable onReady);
+    // Products below their reorder threshold, lowest stock first, kept current on every write
+    List<Product> findLowStock();
+    int getLowStockThreshold(String productId);
+    // A null threshold falls back to the default, eshop.stock.low-threshold
+    void setLowStockThreshold(String productId, Integer threshold);
+    void setDefaultLowStockThreshold(int threshold);
+    void addLowStockListener(LowStockListener<Product> listener);
+    // Moves on every write; used for conditional GETs
+    long getVersion();
+    long getLastModified();
+
+    // Atomic stock changes; each returns null or false instead of letting stock go negative
+    Product decrementIfAvailable(String productId, int quantity);
+    Product adjustQuantity(String productId, int delta);
+    // All-or-nothing hold on several products in one atomic step, undone again by release
+    boolean reserve(Map<String, Integer> quantities);
+    // Returns the ids whose stock could not be handed back, such as products deleted since
+    List<String> release(Map<String, Integer> quantities);
 
 }
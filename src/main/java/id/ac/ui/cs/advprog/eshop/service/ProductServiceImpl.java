@@ -1,45 +1,267 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
 import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    // Rows handed to the repository per batch during a CSV import
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     @Autowired
     private IProductRepository productRepository;
-    
+
+    @Autowired
+    private ProductCache productCache;
+
+    private volatile long lastModified = System.currentTimeMillis();
+
+    // Products below this quantity are low on stock unless given a threshold of their own
+    @Value("${eshop.stock.low-threshold:5}")
+    private int lowStockThreshold = 5;
+
+    private final LowStockWatchlist<Product> lowStock = new LowStockWatchlist<>(Product::getProductId,
+            id -> productRepository.findById(id), visitor -> productRepository.forEachItem(visitor),
+            Product::getProductQuantity, lowStockThreshold);
+
+    // Changes kept for clients resuming the change feed, and how many items may wait for one
+    // client before it is told to reload instead
+    @Value("${eshop.changes.history:10000}")
+    private int changeHistory = 10_000;
+
+    @Value("${eshop.changes.buffer:1000}")
+    private int changeBuffer = 1_000;
+
+    private ChangeFeed<Product> changes;
+
+    // Writes that bypass this service, such as WAL replay or batch imports, still evict stale entries
+    // and move products on or off the low-stock watchlist
+    @PostConstruct
+    void trackRepositoryChanges() {
+        changes = new ChangeFeed<>(changeHistory, changeBuffer);
+        productRepository.addListener((id, previous, current, version) -> {
+            productCache.invalidate(id);
+            lastModified = System.currentTimeMillis();
+            if (current == null) {
+                lowStock.forget(id);
+            } else {
+                lowStock.refresh(id);
+            }
+            changes.publish(id, previous, current, version);
+        });
+        // Also the one scan that lists products already stored, e.g. in mapped files
+        lowStock.setDefaultThreshold(lowStockThreshold);
+    }
+
     @Override
     public Product create(Product product) {
         productRepository.create(product);
+        productCache.invalidate(product.getProductId());
         return product;
     }
 
+    @Override
+    public Product createIfAbsent(Product product) {
+        Product created = productRepository.createIfAbsent(product);
+        if (created != null) {
+            productCache.invalidate(created.getProductId());
+        }
+        return created;
+    }
+
     @Override
     public List<Product> findAll() {
-        List<Product> allProduct = productRepository.findAll();
-        return allProduct;
+        return productRepository.findAll();
+    }
+
+    @Override
+    public CursorPage<Product> findPage(String cursor, int size) {
+        return productRepository.findPage(cursor, size);
     }
     
+    @Override
+    public CursorPage<Product> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return productRepository.findPageByQuantity(min, max, descending, cursor, size);
+    }
+
+    @Override
+    public List<Product> findTopByQuantity(int limit, boolean descending) {
+        return productRepository.findTopByQuantity(limit, descending);
+    }
+
+    @Override
+    public List<Product> searchByName(String query, boolean prefixOnly, int limit) {
+        if (prefixOnly) {
+            return productRepository.findByNamePrefix(query, limit);
+        }
+        return productRepository.findByNameContaining(query, limit);
+    }
+
     // Method to find the product by its ID, later used to edit and delete the products
     @Override
     public Product findById(String productId) {
-        return productRepository.findById(productId);
+        return productCache.get(productId, productRepository::findById);
     }
 
     // Method to edit the product
     @Override
     public Product update(Product product) {
-        return productRepository.update(product);
+        Product updated = productRepository.update(product);
+        productCache.invalidate(product.getProductId());
+        return updated;
     }
 
     @Override
     public void delete(String productId) {
         productRepository.delete(productId);
+        productCache.invalidate(productId);
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return productCache.getStats();
+    }
+
+    @Override
+    public ChangeSubscription<Product> subscribeToChanges(String resumeToken, Runnable onReady) {
+        return changes.subscribe(resumeToken, onReady);
+    }
+
+    @Override
+    public List<Product> findLowStock() {
+        return lowStock.findLow();
+    }
+
+    @Override
+    public int getLowStockThreshold(String productId) {
+        return lowStock.getThreshold(productId);
+    }
+
+    @Override
+    public void setLowStockThreshold(String productId, Integer threshold) {
+        lowStock.setThreshold(productId, threshold);
+    }
+
+    @Override
+    public void setDefaultLowStockThreshold(int threshold) {
+        lowStock.setDefaultThreshold(threshold);
+    }
+
+    @Override
+    public void addLowStockListener(LowStockListener<Product> listener) {
+        lowStock.addListener(listener);
+    }
+
+    @Override
+    public long getVersion() {
+        return productRepository.getVersion();
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        productRepository.createAll(products);
+        for (Product product : products) {
+            productCache.invalidate(product.getProductId());
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        List<Product> updated = productRepository.updateAll(products);
+        for (Product product : products) {
+            productCache.invalidate(product.getProductId());
+        }
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<String> productIds) {
+        productRepository.deleteAll(productIds);
+        for (String productId : productIds) {
+            productCache.invalidate(productId);
+        }
+    }
+
+    @Override
+    public int importCsv(Reader csv) throws IOException {
+        return CsvRowReader.importAll(csv, IMPORT_BATCH_SIZE, row -> {
+            Product product = new Product();
+            product.setProductId(row.get("productId"));
+            product.setProductName(row.get("productName"));
+            product.setProductQuantity(row.getInt("productQuantity"));
+            return product;
+        }, this::createAll, "productName", "productQuantity");
+    }
+
+    @Override
+    public Product decrementIfAvailable(String productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        return adjustQuantity(productId, -quantity);
+    }
+
+    @Override
+    public Product adjustQuantity(String productId, int delta) {
+        Product adjusted = productRepository.adjustQuantity(productId, delta);
+        if (adjusted != null) {
+            productCache.invalidate(productId);
+        }
+        return adjusted;
+    }
+
+    @Override
+    public boolean reserve(Map<String, Integer> quantities) {
+        requirePositive(quantities);
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        // One repository step, so no reader or competing order ever sees part of the hold
+        if (productRepository.adjustQuantities(deltas) == null) {
+            return false;
+        }
+        for (String productId : deltas.keySet()) {
+            productCache.invalidate(productId);
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> release(Map<String, Integer> quantities) {
+        // Checked before any stock moves, so a bad entry cannot leave the release half done
+        requirePositive(quantities);
+        List<String> notReleased = new ArrayList<>();
+        for (Map.Entry<String, Integer> item : quantities.entrySet()) {
+            if (adjustQuantity(item.getKey(), item.getValue()) == null) {
+                notReleased.add(item.getKey());
+            }
+        }
+        return notReleased;
+    }
+
+    private static void requirePositive(Map<String, Integer> quantities) {
+        for (int quantity : quantities.values()) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+            }
+        }
     }
 }
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+// Non-blocking counterpart of CarService, used by the controllers of the reactive profile
+public interface ReactiveCarService {
+    Mono<Car> create(Car car);
+    // Empty when a car with that id already exists
+    Mono<Car> createIfAbsent(Car car);
+    // Emitted a repository page at a time, as the subscriber asks for more
+    Flux<Car> findAll();
+    Mono<CursorPage<Car>> findPage(String cursor, int size);
+    Mono<CursorPage<Car>> findPageByQuantity(int min, int max, boolean descending, String cursor, int size);
+    // Every car in the quantity range in order, emitted a page at a time like findAll
+    Flux<Car> findAllByQuantity(int min, int max, boolean descending);
+    // Empty when no car has the id
+    Mono<Car> findById(String carId);
+    Mono<Void> update(String carId, Car car);
+    Mono<Void> deleteCarById(String carId);
+    // Imports a CSV file already on disk; emits the rows imported
+    Mono<Integer> importCsv(Path csv);
+    // Deltas from every write after the resume token, taken from a coalescing buffer as requested
+    Flux<ChangeEvent<Car>> changes(String resumeToken);
+    long getVersion();
+    long getLastModified();
+}
@@ -0,0 +1,101 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Wraps {@link CarService} the same way {@link ReactiveProductServiceImpl}
+ * wraps the product service: reads on the subscribing thread, writes and
+ * imports on the bounded elastic pool.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCarServiceImpl implements ReactiveCarService {
+
+    // Cars read from the repository per step of findAll
+    static final int STREAM_BATCH_SIZE = 500;
+
+    @Autowired
+    private CarService carService;
+
+    @Override
+    public Mono<Car> create(Car car) {
+        return Mono.fromCallable(() -> carService.create(car)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Car> createIfAbsent(Car car) {
+        return Mono.fromCallable(() -> carService.createIfAbsent(car)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<Car> findAll() {
+        return CursorFlux.of(carService::findPage, STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public Mono<CursorPage<Car>> findPage(String cursor, int size) {
+        return Mono.fromCallable(() -> carService.findPage(cursor, size));
+    }
+
+    @Override
+    public Mono<CursorPage<Car>> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return Mono.fromCallable(() -> carService.findPageByQuantity(min, max, descending, cursor, size));
+    }
+
+    @Override
+    public Flux<Car> findAllByQuantity(int min, int max, boolean descending) {
+        return CursorFlux.of((cursor, size) -> carService.findPageByQuantity(min, max, descending, cursor, size),
+                STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public Mono<Car> findById(String carId) {
+        return Mono.fromCallable(() -> carService.findById(carId));
+    }
+
+    @Override
+    public Mono<Void> update(String carId, Car car) {
+        return Mono.<Void>fromRunnable(() -> carService.update(carId, car)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> deleteCarById(String carId) {
+        return Mono.<Void>fromRunnable(() -> carService.deleteCarById(carId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Integer> importCsv(Path csv) {
+        return Mono.fromCallable(() -> {
+            try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                return carService.importCsv(reader);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<ChangeEvent<Car>> changes(String resumeToken) {
+        return ChangeFlux.of(carService::subscribeToChanges, resumeToken);
+    }
+
+    @Override
+    public long getVersion() {
+        return carService.getVersion();
+    }
+
+    @Override
+    public long getLastModified() {
+        return carService.getLastModified();
+    }
+}
@@ -0,0 +1,32 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+// Non-blocking counterpart of ProductService, used by the controllers of the reactive profile
+public interface ReactiveProductService {
+    Mono<Product> create(Product product);
+    // Empty when a product with that id already exists
+    Mono<Product> createIfAbsent(Product product);
+    // Emitted a repository page at a time, as the subscriber asks for more
+    Flux<Product> findAll();
+    Mono<CursorPage<Product>> findPage(String cursor, int size);
+    Mono<CursorPage<Product>> findPageByQuantity(int min, int max, boolean descending, String cursor, int size);
+    // Every product in the quantity range in order, emitted a page at a time like findAll
+    Flux<Product> findAllByQuantity(int min, int max, boolean descending);
+    Flux<Product> searchByName(String query, boolean prefixOnly, int limit);
+    // Empty when no product has the id
+    Mono<Product> findById(String productId);
+    Mono<Product> update(Product product);
+    Mono<Void> delete(String productId);
+    // Imports a CSV file already on disk; emits the rows imported
+    Mono<Integer> importCsv(Path csv);
+    // Deltas from every write after the resume token, taken from a coalescing buffer as requested
+    Flux<ChangeEvent<Product>> changes(String resumeToken);
+    long getVersion();
+    long getLastModified();
+}
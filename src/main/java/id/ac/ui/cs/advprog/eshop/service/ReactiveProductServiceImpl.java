@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Wraps {@link ProductService}, so the cache and change tracking are shared
+ * with the servlet stack. Reads come from in-memory snapshots or the cache
+ * and return at once, so they run on the subscribing event loop. Writes can
+ * wait on the WAL's fsync or on mapped files and imports read a file, so those
+ * move to the bounded elastic pool instead.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    // Products read from the repository per step of findAll
+    static final int STREAM_BATCH_SIZE = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Override
+    public Mono<Product> create(Product product) {
+        return Mono.fromCallable(() -> productService.create(product)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Product> createIfAbsent(Product product) {
+        return Mono.fromCallable(() -> productService.createIfAbsent(product)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return CursorFlux.of(productService::findPage, STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> findPage(String cursor, int size) {
+        return Mono.fromCallable(() -> productService.findPage(cursor, size));
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> findPageByQuantity(int min, int max, boolean descending, String cursor, int size) {
+        return Mono.fromCallable(() -> productService.findPageByQuantity(min, max, descending, cursor, size));
+    }
+
+    @Override
+    public Flux<Product> findAllByQuantity(int min, int max, boolean descending) {
+        return CursorFlux.of((cursor, size) -> productService.findPageByQuantity(min, max, descending, cursor, size),
+                STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public Flux<Product> searchByName(String query, boolean prefixOnly, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(productService.searchByName(query, prefixOnly, limit)));
+    }
+
+    @Override
+    public Mono<Product> findById(String productId) {
+        return Mono.fromCallable(() -> productService.findById(productId));
+    }
+
+    @Override
+    public Mono<Product> update(Product product) {
+        return Mono.fromCallable(() -> productService.update(product)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> delete(String productId) {
+        return Mono.<Void>fromRunnable(() -> productService.delete(productId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Integer> importCsv(Path csv) {
+        return Mono.fromCallable(() -> {
+            try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                return productService.importCsv(reader);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<ChangeEvent<Product>> changes(String resumeToken) {
+        return ChangeFlux.of(productService::subscribeToChanges, resumeToken);
+    }
+
+    @Override
+    public long getVersion() {
+        return productService.getVersion();
+    }
+
+    @Override
+    public long getLastModified() {
+        return productService.getLastModified();
+    }
+}
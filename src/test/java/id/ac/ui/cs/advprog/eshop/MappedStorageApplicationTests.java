@@ -0,0 +1,57 @@
+package id.ac.ui.cs.advprog.eshop;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ICarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The mapped engine is chosen by a property, so only a real context shows Spring can build it
+@SpringBootTest(properties = "eshop.repository.storage=mapped")
+@DirtiesContext
+class MappedStorageApplicationTests {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private IProductRepository productRepository;
+
+    @Autowired
+    private ICarRepository carRepository;
+
+    @DynamicPropertySource
+    static void mappedDirectory(DynamicPropertyRegistry registry) {
+        registry.add("eshop.repository.mapped.directory", () -> directory.toString());
+    }
+
+    @Test
+    void contextLoads() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(100);
+        String productId = productRepository.create(product).getProductId();
+        Car car = new Car();
+        car.setCarName("Toyota");
+        car.setCarColor("Red");
+        car.setCarQuantity(3);
+        String carId = carRepository.create(car).getCarId();
+
+        assertEquals("Sampo Cap Bambang", productRepository.findById(productId).getProductName());
+        assertEquals("Red", carRepository.findById(carId).getCarColor());
+        assertTrue(Files.exists(directory.resolve("products.dat")));
+        assertTrue(Files.exists(directory.resolve("cars.dat")));
+    }
+}
@@ -0,0 +1,172 @@
+package id.ac.ui.cs.advprog.eshop;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application on Tomcat's platform thread pool, on virtual threads
+ * and on the reactive profile's event loops, and drives the list pages with
+ * many concurrent clients. A filter delays every request to stand in for a
+ * slow downstream store, which is where a bounded platform pool saturates
+ * first. The servlet filter sleeps on its thread; the reactive one waits
+ * without holding one.
+ *
+ * <pre>./gradlew test --tests '*ServerModelLoadComparisonTest' -Deshop.benchmark=true</pre>
+ *
+ * <p>A reduced run, for a laptop or a CI box, takes about half a minute for all
+ * three modes:
+ *
+ * <pre>./gradlew test --tests '*ServerModelLoadComparisonTest' -Deshop.benchmark=true \
+ *     -Deshop.benchmark.clients=50 -Deshop.benchmark.seconds=3 -Deshop.benchmark.warmup-ms=500</pre>
+ */
+class ServerModelLoadComparisonTest {
+
+    private static final int CLIENTS = Integer.getInteger("eshop.benchmark.clients", 400);
+    private static final long DOWNSTREAM_LATENCY_MS = Long.getLong("eshop.benchmark.downstream-latency-ms", 20);
+    private static final long WARMUP_MS = Long.getLong("eshop.benchmark.warmup-ms", 2_000);
+    private static final long RUN_MS = Long.getLong("eshop.benchmark.seconds", 10) * 1_000;
+    private static final List<String> PATHS = List.of("/product/list", "/car/listCar");
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void compareListPagesAcrossServerModels() throws Exception {
+        Map<String, long[]> platform = runLoad(ServerModel.PLATFORM_THREADS);
+        Map<String, long[]> virtual = runLoad(ServerModel.VIRTUAL_THREADS);
+        Map<String, long[]> reactive = runLoad(ServerModel.REACTIVE);
+
+        System.out.printf("%d clients, %d ms simulated downstream latency, %d s per mode%n",
+                CLIENTS, DOWNSTREAM_LATENCY_MS, RUN_MS / 1_000);
+        System.out.printf("%-14s %-9s %12s %10s%n", "path", "server", "requests/s", "p99 ms");
+        for (String path : PATHS) {
+            report(path, "platform", platform.get(path));
+            report(path, "virtual", virtual.get(path));
+            report(path, "reactive", reactive.get(path));
+        }
+        for (String path : PATHS) {
+            assertTrue(platform.get(path).length > 0 && virtual.get(path).length > 0 && reactive.get(path).length > 0);
+        }
+    }
+
+    private enum ServerModel { PLATFORM_THREADS, VIRTUAL_THREADS, REACTIVE }
+
+    // Returns the sorted latencies in nanoseconds of every request made to each path
+    private Map<String, long[]> runLoad(ServerModel model) throws Exception {
+        Object slowDownstream;
+        if (model == ServerModel.REACTIVE) {
+            slowDownstream = (WebFilter) (exchange, chain) ->
+                    Mono.delay(Duration.ofMillis(DOWNSTREAM_LATENCY_MS)).then(chain.filter(exchange));
+        } else {
+            slowDownstream = (Filter) (request, response, chain) -> {
+                try {
+                    Thread.sleep(DOWNSTREAM_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            };
+        }
+        SpringApplicationBuilder application = new SpringApplicationBuilder(EshopApplication.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + (model == ServerModel.VIRTUAL_THREADS))
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("slowDownstream", slowDownstream));
+        if (model == ServerModel.REACTIVE) {
+            application.profiles("reactive");
+        }
+        try (ConfigurableApplicationContext context = application.run()) {
+            seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            drive(client, baseUrl, WARMUP_MS);
+            return drive(client, baseUrl, RUN_MS);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        List<Product> products = new ArrayList<>();
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            products.add(product);
+            Car car = new Car();
+            car.setCarName("Car " + i);
+            car.setCarColor("Red");
+            car.setCarQuantity(i);
+            cars.add(car);
+        }
+        context.getBean(ProductService.class).createAll(products);
+        context.getBean(CarService.class).createAll(cars);
+    }
+
+    private Map<String, long[]> drive(HttpClient client, String baseUrl, long durationMs) throws Exception {
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+        List<Future<List<List<Long>>>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int offset = c;
+                clients.add(executor.submit(() -> {
+                    List<List<Long>> latencies = new ArrayList<>();
+                    for (int p = 0; p < PATHS.size(); p++) {
+                        latencies.add(new ArrayList<>());
+                    }
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        int p = i % PATHS.size();
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATHS.get(p))).build();
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IOException(PATHS.get(p) + " answered " + response.statusCode());
+                        }
+                        latencies.get(p).add(System.nanoTime() - start);
+                    }
+                    return latencies;
+                }));
+            }
+        }
+
+        Map<String, long[]> result = new LinkedHashMap<>();
+        for (int p = 0; p < PATHS.size(); p++) {
+            List<Long> merged = new ArrayList<>();
+            for (Future<List<List<Long>>> future : clients) {
+                merged.addAll(future.get().get(p));
+            }
+            long[] sorted = merged.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            result.put(PATHS.get(p), sorted);
+        }
+        return result;
+    }
+
+    private void report(String path, String mode, long[] latencies) {
+        double throughput = latencies.length * 1_000.0 / RUN_MS;
+        long p99 = latencies.length == 0 ? 0 : latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        System.out.printf("%-14s %-9s %12.0f %10.1f%n", path, mode, throughput, p99 / 1_000_000.0);
+    }
+}
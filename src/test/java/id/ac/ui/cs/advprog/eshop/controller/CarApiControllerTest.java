@@ -0,0 +1,97 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarApiControllerTest {
+
+    @Mock
+    private CarService carService;
+
+    private CarApiController carApiController;
+
+    private Car sampleCar;
+
+    @BeforeEach
+    void setUp() {
+        carApiController = new CarApiController(carService, new ObjectMapper());
+        sampleCar = new Car();
+        sampleCar.setCarId("c1");
+        sampleCar.setCarName("Toyota");
+        sampleCar.setCarColor("Red");
+        sampleCar.setCarQuantity(3);
+    }
+
+    @Test
+    void testCreateCar() {
+        when(carService.createIfAbsent(sampleCar)).thenReturn(sampleCar);
+
+        ResponseEntity<Car> response = carApiController.createCar(sampleCar);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("/api/cars/c1", response.getHeaders().getLocation().toString());
+    }
+
+    @Test
+    void testCreateCar_ExistingIdConflicts() {
+        when(carService.createIfAbsent(sampleCar)).thenReturn(null);
+
+        ResponseEntity<Car> response = carApiController.createCar(sampleCar);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(carService, never()).create(any());
+    }
+
+    @Test
+    void testCreateCar_WithoutIdGetsOne() {
+        Car body = new Car();
+        body.setCarName("Honda");
+        when(carService.createIfAbsent(body)).thenAnswer(invocation -> {
+            body.setCarId("generated");
+            return body;
+        });
+
+        ResponseEntity<Car> response = carApiController.createCar(body);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("/api/cars/generated", response.getHeaders().getLocation().toString());
+        verify(carService, never()).findById(any());
+    }
+
+    @Test
+    void testUpdateCar_ReturnsStoredCar() {
+        Car body = new Car();
+        body.setCarColor("Blue");
+        Car stored = new Car();
+        stored.setCarId("c1");
+        stored.setCarColor("Blue");
+        when(carService.update("c1", body)).thenReturn(stored);
+
+        ResponseEntity<Car> response = carApiController.updateCar("c1", body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("c1", body.getCarId());
+        assertSame(stored, response.getBody());
+        verify(carService, never()).findById(any());
+    }
+
+    @Test
+    void testUpdateCar_MissingIsNotFound() {
+        Car body = new Car();
+        when(carService.update("missing", body)).thenReturn(null);
+
+        assertEquals(HttpStatus.NOT_FOUND, carApiController.updateCar("missing", body).getStatusCode());
+    }
+}
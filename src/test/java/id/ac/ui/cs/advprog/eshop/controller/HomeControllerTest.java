@@ -1,14 +1,33 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CatalogAggregates;
+import id.ac.ui.cs.advprog.eshop.service.CatalogTotals;
 import org.junit.jupiter.api.Test;
+import org.springframework.ui.Model;
+
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
 
 class HomeControllerTest {
 
     @Test
     void testHome() {
-        HomeController homeController = new HomeController();
-        String viewName = homeController.home();
+        CatalogAggregates aggregates = mock(CatalogAggregates.class);
+        CatalogTotals totals = new CatalogTotals(2, 30, 1, 4, Map.of("Red", 1L));
+        List<Product> topProducts = List.of(new Product());
+        when(aggregates.getTotals()).thenReturn(totals);
+        when(aggregates.findTopProducts(HomeController.TOP_PRODUCTS)).thenReturn(topProducts);
+        Model model = mock(Model.class);
+        HomeController homeController = new HomeController(aggregates);
+
+        String viewName = homeController.home(model);
+
         assertEquals("Home", viewName, "The home method should return the view name 'Home'");
+        verify(model).addAttribute("totals", totals);
+        verify(model).addAttribute("topProducts", topProducts);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductApiControllerTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ProductApiController productApiController;
+
+    private Product sampleProduct;
+
+    @BeforeEach
+    void setUp() {
+        productApiController = new ProductApiController(productService, new ObjectMapper());
+        sampleProduct = new Product();
+        sampleProduct.setProductId("12345");
+        sampleProduct.setProductName("Test Product");
+        sampleProduct.setProductQuantity(10);
+    }
+
+    @Test
+    void testListProducts_StreamsEveryPage() throws Exception {
+        Product second = new Product();
+        second.setProductId("67890");
+        second.setProductName("Second \"Product\"");
+        second.setProductQuantity(5);
+        int batch = ProductApiController.STREAM_BATCH_SIZE;
+        when(productService.findPage(null, batch)).thenReturn(new CursorPage<>(List.of(sampleProduct), "next"));
+        when(productService.findPage("next", batch)).thenReturn(new CursorPage<>(List.of(second), null));
+
+        ResponseEntity<StreamingResponseBody> response = productApiController.listProducts();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[{\"productId\":\"12345\",\"productName\":\"Test Product\",\"productQuantity\":10},"
+                        + "{\"productId\":\"67890\",\"productName\":\"Second \\\"Product\\\"\",\"productQuantity\":5}]",
+                out.toString(StandardCharsets.UTF_8));
+        verify(productService, never()).findAll();
+    }
+
+    @Test
+    void testListProducts_Empty() throws Exception {
+        when(productService.findPage(null, ProductApiController.STREAM_BATCH_SIZE))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productApiController.listProducts().getBody().writeTo(out);
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testGetProduct() {
+        when(productService.findById("12345")).thenReturn(sampleProduct);
+        when(productService.findById("missing")).thenReturn(null);
+
+        ResponseEntity<Product> found = productApiController.getProduct("12345");
+        ResponseEntity<Product> missing = productApiController.getProduct("missing");
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertSame(sampleProduct, found.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    @Test
+    void testCreateProduct() {
+        when(productService.createIfAbsent(sampleProduct)).thenReturn(sampleProduct);
+
+        ResponseEntity<Product> response = productApiController.createProduct(sampleProduct);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("/api/products/12345", response.getHeaders().getLocation().toString());
+    }
+
+    @Test
+    void testCreateProduct_ExistingIdConflicts() {
+        when(productService.createIfAbsent(sampleProduct)).thenReturn(null);
+
+        ResponseEntity<Product> response = productApiController.createProduct(sampleProduct);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(productService, never()).create(any());
+    }
+
+    @Test
+    void testCreateProduct_WithoutIdGetsOne() {
+        Product body = new Product();
+        body.setProductName("New");
+        when(productService.createIfAbsent(body)).thenAnswer(invocation -> {
+            body.setProductId("generated");
+            return body;
+        });
+
+        ResponseEntity<Product> response = productApiController.createProduct(body);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("/api/products/generated", response.getHeaders().getLocation().toString());
+        verify(productService, never()).findById(any());
+    }
+
+    @Test
+    void testUpdateProduct_UsesIdFromPath() {
+        Product body = new Product();
+        body.setProductName("Renamed");
+        Product unknown = new Product();
+        when(productService.update(body)).thenReturn(body);
+        when(productService.update(unknown)).thenReturn(null);
+
+        ResponseEntity<Product> response = productApiController.updateProduct("12345", body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("12345", body.getProductId());
+        assertEquals(HttpStatus.NOT_FOUND, productApiController.updateProduct("missing", unknown).getStatusCode());
+    }
+
+    @Test
+    void testDeleteProduct() {
+        when(productService.findById("12345")).thenReturn(sampleProduct);
+        when(productService.findById("missing")).thenReturn(null);
+
+        assertEquals(HttpStatus.NO_CONTENT, productApiController.deleteProduct("12345").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, productApiController.deleteProduct("missing").getStatusCode());
+        verify(productService, times(1)).delete("12345");
+        verify(productService, never()).delete("missing");
+    }
+
+    @Test
+    void testLowStockThreshold() {
+        when(productService.findById("12345")).thenReturn(sampleProduct);
+        when(productService.findById("missing")).thenReturn(null);
+        when(productService.findLowStock()).thenReturn(List.of(sampleProduct));
+
+        assertEquals(HttpStatus.NO_CONTENT, productApiController.setLowStockThreshold("12345", 20).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, productApiController.setLowStockThreshold("missing", 20).getStatusCode());
+        assertEquals(List.of(sampleProduct), productApiController.lowStock());
+        verify(productService).setLowStockThreshold("12345", 20);
+        verify(productService, never()).setLowStockThreshold(eq("missing"), any());
+    }
+}
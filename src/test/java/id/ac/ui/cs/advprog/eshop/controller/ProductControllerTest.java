@@ -1,19 +1,34 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,11 +71,114 @@ class ProductControllerTest {
     @Test
     void testProductListPage() {
         List<Product> productList = Arrays.asList(sampleProduct);
-        when(productService.findAll()).thenReturn(productList);
+        when(productService.findPage(null, 20)).thenReturn(new CursorPage<>(productList, "next"));
 
-        String viewName = productController.ProductListPage(model);
+        String viewName = productController.ProductListPage(null, 20, false, null, null, null, model, listRequest());
         assertEquals("ProductList", viewName);
         verify(model, times(1)).addAttribute("products", productList);
+        verify(model, times(1)).addAttribute("nextCursor", "next");
+    }
+
+    @Test
+    void testProductListPage_ClampsPageSize() {
+        when(productService.findPage("abc", 100)).thenReturn(new CursorPage<>(List.of(), null));
+
+        productController.ProductListPage("abc", 5000, false, null, null, null, model, listRequest());
+        verify(productService, times(1)).findPage("abc", 100);
+        verify(model, times(1)).addAttribute("pageSize", 100);
+    }
+
+    @Test
+    void testProductListPage_SortsByQuantityWithinRange() {
+        List<Product> productList = Arrays.asList(sampleProduct);
+        when(productService.findPageByQuantity(5, Integer.MAX_VALUE, true, null, 20))
+                .thenReturn(new CursorPage<>(productList, null));
+
+        String viewName = productController.ProductListPage(null, 20, false, "-quantity", 5, null, model, listRequest());
+        assertEquals("ProductList", viewName);
+        verify(model, times(1)).addAttribute("products", productList);
+        verify(model, times(1)).addAttribute("sort", "-quantity");
+        verify(model, times(1)).addAttribute("minQuantity", 5);
+        verify(productService, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void testProductListPage_InvalidCursorRedirectsToFirstPage() {
+        when(productService.findPage("bad", 20)).thenThrow(new IllegalArgumentException("Invalid page cursor"));
+
+        String viewName = productController.ProductListPage("bad", 20, false, null, null, null, model, listRequest());
+        assertEquals("redirect:/product/list", viewName);
+    }
+
+    @Test
+    void testProductListPage_AnswersNotModifiedForCurrentETag() {
+        when(productService.getVersion()).thenReturn(7L);
+        when(productService.getLastModified()).thenReturn(1_700_000_000_000L);
+        when(productService.findPage(null, 20)).thenReturn(new CursorPage<>(List.of(sampleProduct), null));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        productController.ProductListPage(null, 20, false, null, null, null, model,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/product/list"), first));
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals("no-cache", first.getHeader("Cache-Control"));
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/product/list");
+        revalidation.addHeader("If-None-Match", etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        String viewName = productController.ProductListPage(null, 20, false, null, null, null, model, new ServletWebRequest(revalidation, second));
+
+        assertNull(viewName);
+        assertEquals(304, second.getStatus());
+        verify(productService, times(1)).findPage(null, 20);
+    }
+
+    @Test
+    void testProductListPage_NewVersionChangesETag() {
+        when(productService.getVersion()).thenReturn(7L, 8L);
+        when(productService.findPage(null, 20)).thenReturn(new CursorPage<>(List.of(), null));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        productController.ProductListPage(null, 20, false, null, null, null, model,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/product/list"), first));
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/product/list");
+        revalidation.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        String viewName = productController.ProductListPage(null, 20, false, null, null, null, model, new ServletWebRequest(revalidation, second));
+
+        assertEquals("ProductList", viewName);
+        assertEquals(200, second.getStatus());
+        verify(productService, times(2)).findPage(null, 20);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProductListPage_StreamsAllRowsInChunks() {
+        Product second = new Product();
+        second.setProductId("67890");
+        int batch = ProductController.STREAM_BATCH_SIZE;
+        when(productService.findPage(null, batch)).thenReturn(new CursorPage<>(List.of(sampleProduct), "next"));
+        when(productService.findPage("next", batch)).thenReturn(new CursorPage<>(List.of(second), null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String viewName = productController.ProductListPage(null, 20, true, null, null, null, model,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/product/list"), response));
+
+        assertEquals("ProductList", viewName);
+        verify(model, times(1)).addAttribute("streaming", true);
+        // Nothing is read until the template iterates
+        verify(productService, never()).findPage(any(), anyInt());
+
+        ArgumentCaptor<Iterable<Product>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(model).addAttribute(eq("products"), rows.capture());
+        Iterator<Product> iterator = rows.getValue().iterator();
+        assertSame(sampleProduct, iterator.next());
+        // The head of the page went out before the first batch was read
+        assertTrue(response.isCommitted());
+        verify(productService, never()).findPage("next", batch);
+        assertSame(second, iterator.next());
+        assertFalse(iterator.hasNext());
+        verify(productService, times(2)).findPage(any(), eq(batch));
     }
 
     @Test
@@ -93,4 +211,47 @@ class ProductControllerTest {
         assertEquals("redirect:/product/list", result);
         verify(productService, times(1)).delete("12345");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchProductPage() {
+        List<Product> productList = Arrays.asList(sampleProduct);
+        when(productService.searchByName("test", true, 100)).thenReturn(productList);
+
+        String viewName = productController.searchProductPage("test", "prefix", model);
+        assertEquals("ProductList", viewName);
+        verify(model, times(1)).addAttribute("products", productList);
+        verify(model, times(1)).addAttribute("query", "test");
+    }
+
+    @Test
+    void testImportProductsPost() throws Exception {
+        RedirectAttributes redirectAttributes = mock(RedirectAttributes.class);
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv",
+                "productName,productQuantity\nSampo,1\n".getBytes(StandardCharsets.UTF_8));
+        when(productService.importCsv(any(Reader.class))).thenReturn(1);
+
+        String result = productController.importProductsPost(file, redirectAttributes);
+
+        assertEquals("redirect:/product/list", result);
+        verify(redirectAttributes).addFlashAttribute("importMessage", "Imported 1 products");
+    }
+
+    @Test
+    void testImportProductsPost_ReportsMalformedFile() throws Exception {
+        RedirectAttributes redirectAttributes = mock(RedirectAttributes.class);
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv",
+                "name\n".getBytes(StandardCharsets.UTF_8));
+        when(productService.importCsv(any(Reader.class)))
+                .thenThrow(new IllegalArgumentException("CSV header is missing the productName column"));
+
+        String result = productController.importProductsPost(file, redirectAttributes);
+
+        assertEquals("redirect:/product/list", result);
+        verify(redirectAttributes).addFlashAttribute("importMessage",
+                "Import failed: CSV header is missing the productName column");
+    }
+
+    private ServletWebRequest listRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/product/list"), new MockHttpServletResponse());
+    }
+}
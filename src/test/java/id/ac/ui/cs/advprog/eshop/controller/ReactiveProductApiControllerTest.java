@@ -0,0 +1,98 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductApiControllerTest {
+
+    @Mock
+    private ReactiveProductService productService;
+
+    private ReactiveProductApiController productApiController;
+
+    private Product sampleProduct;
+
+    @BeforeEach
+    void setUp() {
+        productApiController = new ReactiveProductApiController(productService);
+        sampleProduct = new Product();
+        sampleProduct.setProductId("12345");
+        sampleProduct.setProductName("Test Product");
+        sampleProduct.setProductQuantity(10);
+    }
+
+    @Test
+    void testListProducts() {
+        when(productService.findAll()).thenReturn(Flux.just(sampleProduct));
+
+        StepVerifier.create(productApiController.listProducts()).expectNext(sampleProduct).verifyComplete();
+    }
+
+    @Test
+    void testGetProduct() {
+        when(productService.findById("12345")).thenReturn(Mono.just(sampleProduct));
+        when(productService.findById("missing")).thenReturn(Mono.empty());
+
+        ResponseEntity<Product> found = productApiController.getProduct("12345").block();
+        ResponseEntity<Product> missing = productApiController.getProduct("missing").block();
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertSame(sampleProduct, found.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    @Test
+    void testCreateProduct() {
+        when(productService.createIfAbsent(sampleProduct)).thenReturn(Mono.just(sampleProduct));
+
+        ResponseEntity<Product> response = productApiController.createProduct(sampleProduct).block();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("/api/products/12345", response.getHeaders().getLocation().toString());
+    }
+
+    @Test
+    void testCreateProduct_ConflictWhenIdTaken() {
+        when(productService.createIfAbsent(sampleProduct)).thenReturn(Mono.empty());
+
+        ResponseEntity<Product> response = productApiController.createProduct(sampleProduct).block();
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testUpdateProduct_UsesIdFromPath() {
+        Product body = new Product();
+        when(productService.update(body)).thenReturn(Mono.empty());
+
+        ResponseEntity<Product> response = productApiController.updateProduct("missing", body).block();
+
+        assertEquals("missing", body.getProductId());
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testDeleteProduct() {
+        when(productService.findById("12345")).thenReturn(Mono.just(sampleProduct));
+        when(productService.findById("missing")).thenReturn(Mono.empty());
+        when(productService.delete("12345")).thenReturn(Mono.empty());
+
+        assertEquals(HttpStatus.NO_CONTENT, productApiController.deleteProduct("12345").block().getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, productApiController.deleteProduct("missing").block().getStatusCode());
+        verify(productService, never()).delete("missing");
+    }
+}
@@ -0,0 +1,134 @@
+package id.ac.ui.cs.advprog.eshop.load;
+
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application on a random local port and drives a mix of the
+ * product and car pages at an open-model arrival rate, then prints the
+ * throughput and latency percentiles of each page. Everything runs against
+ * localhost, so it can gate a release on a machine without network access:
+ * it fails on any error response, on requests the client could not send,
+ * and on a p99 above {@code eshop.load.max-p99-ms} when that is set.
+ *
+ * <pre>./gradlew test --tests '*EndpointLoadTest' -Deshop.benchmark=true -Deshop.load.rate=500 \
+ *     -Deshop.load.mix=product-list=40,car-list=40,product-edit=10,product-create=5,car-create=5</pre>
+ */
+class EndpointLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("eshop.load.rate", "200"));
+    private static final long SECONDS = Long.getLong("eshop.load.seconds", 30);
+    private static final long WARMUP_SECONDS = Long.getLong("eshop.load.warmup-seconds", 5);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("eshop.load.max-in-flight", 1_000);
+    private static final String MIX = System.getProperty("eshop.load.mix",
+            "product-list=35,car-list=35,product-edit=20,product-create=5,car-create=5");
+    private static final String MAX_P99_MS = System.getProperty("eshop.load.max-p99-ms");
+    private static final int SEEDED = 1_000;
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void endpointMixUnderOpenModelLoad() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EshopApplication.class)
+                .properties("server.port=0")
+                .run()) {
+            List<String> productIds = seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            generator(client, baseUrl, productIds).run(Duration.ofSeconds(WARMUP_SECONDS));
+            LoadGenerator.Report report = generator(client, baseUrl, productIds).run(Duration.ofSeconds(SECONDS));
+
+            System.out.printf("%.0f requests/s offered for %d s, mix %s%n", RATE, SECONDS, MIX);
+            report.print(System.out);
+            assertEquals(0, report.errors(), "Requests answered with an error");
+            assertEquals(0, report.dropped(), "The client fell behind the arrival rate; raise eshop.load.max-in-flight");
+            if (MAX_P99_MS != null) {
+                double p99Ms = report.overall().valueAtPercentile(99) / 1e6;
+                assertTrue(p99Ms <= Double.parseDouble(MAX_P99_MS),
+                        "p99 of " + p99Ms + " ms exceeds " + MAX_P99_MS + " ms");
+            }
+        }
+    }
+
+    private LoadGenerator generator(HttpClient client, String baseUrl, List<String> productIds) {
+        Map<String, Supplier<HttpRequest>> requests = new LinkedHashMap<>();
+        AtomicInteger created = new AtomicInteger();
+        requests.put("product-create", () -> form(baseUrl + "/product/create",
+                "productName=Load+product+" + created.incrementAndGet() + "&productQuantity=10"));
+        requests.put("product-list", () -> get(baseUrl + "/product/list"));
+        requests.put("product-edit", () -> get(baseUrl + "/product/edit/"
+                + productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()))));
+        requests.put("car-create", () -> form(baseUrl + "/car/createCar",
+                "carName=Load+car+" + created.incrementAndGet() + "&carColor=Red&carQuantity=3"));
+        requests.put("car-list", () -> get(baseUrl + "/car/listCar"));
+
+        LoadGenerator generator = new LoadGenerator(client, RATE, MAX_IN_FLIGHT, 42);
+        for (String entry : MIX.split(",")) {
+            String[] nameAndWeight = entry.trim().split("=");
+            Supplier<HttpRequest> request = requests.get(nameAndWeight[0]);
+            if (request == null) {
+                throw new IllegalArgumentException("Unknown operation " + nameAndWeight[0] + ", expected one of "
+                        + requests.keySet());
+            }
+            generator.add(nameAndWeight[0], Integer.parseInt(nameAndWeight[1]), request);
+        }
+        return generator;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    // Form posts answer with a redirect to the list, which the client does not follow
+    private static HttpRequest form(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private List<String> seed(ConfigurableApplicationContext context) {
+        List<Product> products = new ArrayList<>();
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < SEEDED; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            products.add(product);
+            Car car = new Car();
+            car.setCarName("Car " + i);
+            car.setCarColor("Red");
+            car.setCarQuantity(i);
+            cars.add(car);
+        }
+        context.getBean(CarService.class).createAll(cars);
+        return context.getBean(ProductService.class).createAll(products).stream()
+                .map(Product::getProductId)
+                .toList();
+    }
+}
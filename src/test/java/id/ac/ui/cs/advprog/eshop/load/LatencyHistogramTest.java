@@ -0,0 +1,53 @@
+package id.ac.ui.cs.advprog.eshop.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(50, histogram.valueAtPercentile(50));
+        assertEquals(99, histogram.valueAtPercentile(99));
+        assertEquals(100, histogram.valueAtPercentile(100));
+        assertEquals(50.5, histogram.mean(), 1e-9);
+    }
+
+    @Test
+    void testLargeValuesStayWithinOnePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1_000; millis++) {
+            histogram.record(millis * 1_000_000);
+        }
+
+        assertEquals(500_000_000, histogram.valueAtPercentile(50), 500_000_000 * 0.01);
+        assertEquals(990_000_000, histogram.valueAtPercentile(99), 990_000_000 * 0.01);
+        assertEquals(999_000_000, histogram.valueAtPercentile(99.9), 999_000_000 * 0.01);
+        assertEquals(1_000_000_000, histogram.max());
+    }
+
+    @Test
+    void testBucketsCoverEveryLong() {
+        for (long value : new long[]{0, 255, 256, 257, 1_000_003, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highestInBucket(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestInBucket(index - 1) < value);
+        }
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.valueAtPercentile(99));
+        assertEquals(0, histogram.mean());
+    }
+}
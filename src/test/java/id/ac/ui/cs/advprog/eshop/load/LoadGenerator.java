@@ -0,0 +1,179 @@
+package id.ac.ui.cs.advprog.eshop.load;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: requests arrive at a fixed average rate with exponential
+ * gaps between them, whether or not earlier requests have been answered, the
+ * way independent users arrive at a shop. Each request's latency is measured
+ * from when it was due rather than when it was sent, so a stalled server or a
+ * late scheduler shows up in the percentiles instead of quietly lowering the
+ * request rate.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final double requestsPerSecond;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Random random;
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    LoadGenerator(HttpClient client, double requestsPerSecond, int maxInFlight, long seed) {
+        this.client = client;
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.random = new Random(seed);
+    }
+
+    // Adds an operation chosen for weight out of the total weight of all operations
+    LoadGenerator add(String name, int weight, Supplier<HttpRequest> request) {
+        operations.add(new Operation(name, weight, request));
+        totalWeight += weight;
+        return this;
+    }
+
+    Report run(Duration duration) throws InterruptedException {
+        Report report = new Report(operations, duration);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long due = start;
+        while (true) {
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            if (!inFlight.tryAcquire()) {
+                // The client is the bottleneck now; these would skew the result, so they are counted apart
+                report.dropped.increment();
+                continue;
+            }
+            send(operation, report, due);
+        }
+        // Let the requests still out finish so they are part of the report
+        if (inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        return report;
+    }
+
+    private void send(Operation operation, Report report, long due) {
+        Report.Stats stats = report.stats(operation);
+        client.sendAsync(operation.request.get(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - due;
+                    if (failure != null || response.statusCode() >= 400) {
+                        stats.errors.increment();
+                    } else {
+                        stats.latencies.record(latency);
+                        report.overall.record(latency);
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private Operation pick() {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("No operations to pick from");
+    }
+
+    private static final class Operation {
+        private final String name;
+        private final int weight;
+        private final Supplier<HttpRequest> request;
+
+        private Operation(String name, int weight, Supplier<HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+
+    static final class Report {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<Stats> stats = new ArrayList<>();
+        private final LatencyHistogram overall = new LatencyHistogram();
+        private final LongAdder dropped = new LongAdder();
+        private final Duration duration;
+
+        private Report(List<Operation> operations, Duration duration) {
+            for (Operation operation : operations) {
+                names.add(operation.name);
+                stats.add(new Stats());
+            }
+            this.duration = duration;
+        }
+
+        private Stats stats(Operation operation) {
+            return stats.get(names.indexOf(operation.name));
+        }
+
+        LatencyHistogram overall() {
+            return overall;
+        }
+
+        long errors() {
+            return stats.stream().mapToLong(s -> s.errors.sum()).sum();
+        }
+
+        long dropped() {
+            return dropped.sum();
+        }
+
+        void print(PrintStream out) {
+            double seconds = duration.toNanos() / 1e9;
+            out.printf("%-16s %9s %7s %10s %9s %9s %9s %9s%n",
+                    "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (int i = 0; i < names.size(); i++) {
+                row(out, names.get(i), stats.get(i).latencies, stats.get(i).errors.sum(), seconds);
+            }
+            row(out, "all", overall, errors(), seconds);
+            if (dropped() > 0) {
+                out.printf("%d requests were not sent because the client had too many in flight%n", dropped());
+            }
+        }
+
+        private static void row(PrintStream out, String name, LatencyHistogram latencies, long errors, double seconds) {
+            out.printf("%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name, latencies.count(), errors,
+                    latencies.count() / seconds, millis(latencies.valueAtPercentile(50)),
+                    millis(latencies.valueAtPercentile(99)), millis(latencies.valueAtPercentile(99.9)),
+                    millis(latencies.max()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+
+        private static final class Stats {
+            private final LatencyHistogram latencies = new LatencyHistogram();
+            private final LongAdder errors = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Serves the same requests from two contexts, one with the repository and
+ * service metrics and one without, and compares the median time per request.
+ * Rounds alternate between the two so JIT and GC drift hits both equally.
+ *
+ * <pre>./gradlew test --tests '*MetricsOverheadBenchmarkTest' -Deshop.benchmark=true</pre>
+ */
+class MetricsOverheadBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int ROUNDS = 20;
+    private static final int REQUESTS_PER_ROUND = 5_000;
+    private static final double MAX_OVERHEAD_PERCENT =
+            Double.parseDouble(System.getProperty("eshop.benchmark.max-overhead-percent", "5"));
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void metricsOverheadOnTheRequestPathStaysSmall() throws Exception {
+        try (ConfigurableApplicationContext plain = start(false);
+             ConfigurableApplicationContext instrumented = start(true)) {
+            MockMvc plainMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) plain).build();
+            MockMvc instrumentedMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) instrumented).build();
+
+            for (int warmup = 0; warmup < 3; warmup++) {
+                round(plainMvc);
+                round(instrumentedMvc);
+            }
+            long[] plainNanos = new long[ROUNDS];
+            long[] instrumentedNanos = new long[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                plainNanos[i] = round(plainMvc);
+                instrumentedNanos[i] = round(instrumentedMvc);
+            }
+
+            double plainPerRequest = median(plainNanos) / (double) REQUESTS_PER_ROUND;
+            double instrumentedPerRequest = median(instrumentedNanos) / (double) REQUESTS_PER_ROUND;
+            double overheadPercent = (instrumentedPerRequest - plainPerRequest) * 100 / plainPerRequest;
+            System.out.printf("without metrics %.1f us/request, with metrics %.1f us/request, overhead %.2f%%%n",
+                    plainPerRequest / 1_000, instrumentedPerRequest / 1_000, overheadPercent);
+            assertTrue(overheadPercent < MAX_OVERHEAD_PERCENT,
+                    "Metrics overhead " + overheadPercent + "% exceeds " + MAX_OVERHEAD_PERCENT + "%");
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean metrics) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EshopApplication.class)
+                // A web application context without a listening server; requests go through MockMvc
+                .properties("server.port=-1", "eshop.metrics.enabled=" + metrics)
+                .run();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setProductId("bench-" + i);
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            products.add(product);
+        }
+        context.getBean(ProductService.class).createAll(products);
+        return context;
+    }
+
+    // The two hot paths: product lookups through the API and the first page of the list
+    private long round(MockMvc mvc) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+            String path = i % 10 == 0 ? "/product/list" : "/api/products/bench-" + (i % PRODUCTS);
+            int status = mvc.perform(get(path)).andReturn().getResponse().getStatus();
+            if (status != 200) {
+                fail(path + " answered " + status);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
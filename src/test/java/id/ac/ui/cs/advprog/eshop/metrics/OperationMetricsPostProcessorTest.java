@@ -0,0 +1,96 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.IProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.CacheStats;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OperationMetricsPostProcessorTest {
+
+    private MeterRegistry registry;
+    private IProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repository = (IProductRepository) OperationMetricsPostProcessor.instrument(
+                new ProductRepository(), registry, "eshop.repository", "repository", "product");
+    }
+
+    private Product product(String id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(1);
+        return product;
+    }
+
+    @Test
+    void testCallsAreTimedAndMissesCounted() {
+        Product product = product("p-1");
+        repository.create(product);
+
+        assertSame(product, repository.findById("p-1"));
+        assertNull(repository.findById("missing"));
+
+        Timer findById = registry.get("eshop.repository.invocations")
+                .tags("repository", "product", "method", "findById").timer();
+        assertEquals(2, findById.count());
+        assertEquals(1, registry.get("eshop.repository.not.found").tag("method", "findById").counter().count());
+        assertEquals(0, registry.get("eshop.repository.not.found").tag("method", "update").counter().count());
+    }
+
+    @Test
+    void testListsAndBookkeepingAreNotCountedAsMisses() {
+        repository.findAll();
+        repository.getVersion();
+
+        assertNull(registry.find("eshop.repository.not.found").tag("method", "findAll").counter());
+        assertNull(registry.find("eshop.repository.invocations").tag("method", "getVersion").timer());
+    }
+
+    @Test
+    void testExceptionsPassThroughAndAreTimed() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(null, 0));
+        assertEquals(1, registry.get("eshop.repository.invocations").tag("method", "findPage").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOtherBeansAreLeftAlone() {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        OperationMetricsPostProcessor postProcessor = new OperationMetricsPostProcessor(provider);
+        Object other = new Object();
+
+        assertSame(other, postProcessor.postProcessAfterInitialization(other, "other"));
+        verifyNoInteractions(provider);
+    }
+
+    @Test
+    void testCatalogMetricsReadSizesAndCacheStats() {
+        repository.create(product("p-1"));
+        repository.create(product("p-2"));
+        ProductService productService = mock(ProductService.class);
+        when(productService.getCacheStats()).thenReturn(new CacheStats(7, 3, 1, 2));
+
+        new CatalogMetrics(repository, new CarRepository(), productService).bindTo(registry);
+
+        assertEquals(2, registry.get("eshop.repository.size").tag("repository", "product").gauge().value());
+        assertEquals(0, registry.get("eshop.repository.size").tag("repository", "car").gauge().value());
+        assertEquals(7, registry.get("cache.gets").tags("cache", "products", "result", "hit").functionCounter().count());
+        assertEquals(3, registry.get("cache.gets").tags("cache", "products", "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.evictions").functionCounter().count());
+        assertEquals(2, registry.get("cache.size").gauge().value());
+    }
+}
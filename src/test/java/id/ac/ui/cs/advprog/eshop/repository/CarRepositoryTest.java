@@ -0,0 +1,64 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The shared repository contract for cars, plus what is specific to them
+class CarRepositoryTest extends RepositoryContractTest<Car> {
+
+    ICarRepository carRepository;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = (ICarRepository) repository;
+    }
+
+    // Overridden by the suites of the other storage engines
+    @Override
+    ICarRepository createRepository() throws Exception {
+        return new CarRepository();
+    }
+
+    @Override
+    Car newItem(String id, String name, int quantity) {
+        return newCar(id, name, quantity);
+    }
+
+    @Override
+    String idOf(Car car) {
+        return car.getCarId();
+    }
+
+    @Override
+    String nameOf(Car car) {
+        return car.getCarName();
+    }
+
+    @Override
+    int quantityOf(Car car) {
+        return car.getCarQuantity();
+    }
+
+    private Car newCar(String id, String name, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName(name);
+        car.setCarColor("Red");
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    @Test
+    void testUpdate_ReplacesColor() {
+        carRepository.create(newCar("car-1", "Avanza", 3));
+        Car repainted = newCar("car-1", "Avanza", 3);
+        repainted.setCarColor("Blue");
+
+        carRepository.update(repainted);
+
+        assertEquals("Blue", carRepository.findById("car-1").getCarColor());
+    }
+}
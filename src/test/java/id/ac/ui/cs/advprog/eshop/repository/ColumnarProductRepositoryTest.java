@@ -0,0 +1,168 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the whole ProductRepositoryTest suite against the columnar engine
+class ColumnarProductRepositoryTest extends ProductRepositoryTest {
+
+    @Override
+    IProductRepository createRepository() {
+        return new ColumnarProductRepository();
+    }
+
+    private Product newProduct(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Test
+    void testUuidAndCustomIds_CanBeMixed() {
+        String uuid = UUID.randomUUID().toString();
+        productRepository.create(newProduct(uuid, "By UUID", 1));
+        productRepository.create(newProduct("custom-1", "By custom id", 2));
+        productRepository.create(newProduct(uuid.toUpperCase(), "Upper-case UUID", 3));
+
+        assertEquals("By UUID", productRepository.findById(uuid).getProductName());
+        assertEquals("By custom id", productRepository.findById("custom-1").getProductName());
+        assertEquals("Upper-case UUID", productRepository.findById(uuid.toUpperCase()).getProductName());
+        assertEquals(3, productRepository.findAll().size());
+    }
+
+    @Test
+    void testRandomOperations_MatchInsertionOrderedMap() {
+        Random random = new Random(7);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(i % 5 == 0 ? "custom-" + i : new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        Map<String, Product> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            Product product = newProduct(id, random.nextInt(10) == 0 ? null : "Name " + i, i);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    expected.put(id, product);
+                    productRepository.create(product);
+                }
+                case 1 -> {
+                    expected.replace(id, product);
+                    productRepository.update(product);
+                }
+                default -> {
+                    expected.remove(id);
+                    productRepository.delete(id);
+                }
+            }
+        }
+
+        List<Product> actual = productRepository.findAll();
+        assertEquals(expected.size(), actual.size());
+        int index = 0;
+        for (Product product : expected.values()) {
+            Product stored = actual.get(index++);
+            assertEquals(product.getProductId(), stored.getProductId());
+            assertEquals(product.getProductName(), stored.getProductName());
+            assertEquals(product.getProductQuantity(), stored.getProductQuantity());
+            assertEquals(product.getProductName(), productRepository.findById(product.getProductId()).getProductName());
+        }
+    }
+
+    @Test
+    void testQuantityOrder_HoldsThroughBlockSplitsAndCompaction() {
+        Random random = new Random(11);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 6000; i++) {
+            String id = i % 4 == 0 ? "custom-" + i : new UUID(random.nextLong(), random.nextLong()).toString();
+            int quantity = random.nextInt(50);
+            productRepository.create(newProduct(id, "Item " + i, quantity));
+            expected.put(id, quantity);
+        }
+        List<String> ids = new ArrayList<>(expected.keySet());
+        Collections.shuffle(ids, random);
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (i % 3 == 0) {
+                productRepository.adjustQuantity(id, 7);
+                expected.merge(id, 7, Integer::sum);
+            } else if (i % 3 == 1 || i % 5 == 0) {
+                productRepository.delete(id);
+                expected.remove(id);
+            }
+        }
+
+        List<String> ascending = expected.entrySet().stream()
+                .filter(entry -> entry.getValue() >= 10 && entry.getValue() <= 40)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .toList();
+        List<String> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        assertEquals(ascending, pageByQuantity(10, 40, false));
+        assertEquals(descending, pageByQuantity(10, 40, true));
+    }
+
+    private List<String> pageByQuantity(int min, int max, boolean descending) {
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Product> page = productRepository.findPageByQuantity(min, max, descending, cursor, 37);
+            page.getItems().forEach(product -> visited.add(product.getProductId() + "=" + product.getProductQuantity()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return visited;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void benchmarkMemoryFootprint() {
+        String rows = System.getProperty("eshop.benchmark.rows", "1000000,10000000");
+        for (String count : rows.split(",")) {
+            int rowCount = Integer.parseInt(count.trim());
+            long objects = footprint(new ProductRepository(), rowCount);
+            long columnar = footprint(new ColumnarProductRepository(), rowCount);
+            System.out.printf("%,d rows: ProductRepository %,d MB (%d B/row), ColumnarProductRepository %,d MB (%d B/row)%n",
+                    rowCount, objects >> 20, objects / rowCount, columnar >> 20, columnar / rowCount);
+        }
+    }
+
+    private static long footprint(IProductRepository repository, int rowCount) {
+        long before = usedHeap();
+        Random random = new Random(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            Product product = new Product();
+            product.setProductId(new UUID(random.nextLong(), random.nextLong()).toString());
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            repository.create(product);
+        }
+        long used = usedHeap() - before;
+        // Keeps the repository reachable until after the measurement
+        assertEquals(rowCount, repository.getVersion());
+        return used;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the whole CarRepositoryTest suite against the memory-mapped engine
+class MappedCarRepositoryTest extends CarRepositoryTest {
+
+    private Path directory;
+
+    @Override
+    ICarRepository createRepository() throws Exception {
+        directory = Files.createTempDirectory("mapped-cars");
+        return new MappedCarRepository(directory.resolve("cars.dat"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ((MappedCarRepository) carRepository).close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void testReopen_RestoresCars() throws Exception {
+        Car car = new Car();
+        car.setCarId("car-1");
+        car.setCarName("Avanza");
+        car.setCarColor("Silver");
+        car.setCarQuantity(3);
+        carRepository.create(car);
+        ((MappedCarRepository) carRepository).close();
+
+        carRepository = new MappedCarRepository(directory.resolve("cars.dat"));
+
+        Car restored = carRepository.findById("car-1");
+        assertEquals("Avanza", restored.getCarName());
+        assertEquals("Silver", restored.getCarColor());
+        assertEquals(3, restored.getCarQuantity());
+    }
+
+    @Test
+    void testUpdate_OverLongFieldLeavesRecordIntact() throws Exception {
+        Car car = new Car();
+        car.setCarId("car-1");
+        car.setCarName("Avanza");
+        car.setCarColor("Silver");
+        car.setCarQuantity(3);
+        carRepository.create(car);
+        Car renamed = new Car();
+        renamed.setCarId("car-1");
+        renamed.setCarName("Xenia");
+        renamed.setCarColor("x".repeat(MappedCarRepository.MAX_COLOR_BYTES + 1));
+        renamed.setCarQuantity(7);
+
+        assertThrows(IllegalArgumentException.class, () -> carRepository.update(renamed));
+        ((MappedCarRepository) carRepository).close();
+        carRepository = new MappedCarRepository(directory.resolve("cars.dat"));
+
+        Car stored = carRepository.findById("car-1");
+        assertEquals("Avanza", stored.getCarName());
+        assertEquals("Silver", stored.getCarColor());
+        assertEquals(3, stored.getCarQuantity());
+    }
+}
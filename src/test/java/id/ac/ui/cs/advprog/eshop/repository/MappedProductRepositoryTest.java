@@ -0,0 +1,117 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the whole ProductRepositoryTest suite against the memory-mapped engine
+class MappedProductRepositoryTest extends ProductRepositoryTest {
+
+    private Path directory;
+
+    @Override
+    IProductRepository createRepository() throws Exception {
+        directory = Files.createTempDirectory("mapped-products");
+        return new MappedProductRepository(directory.resolve("products.dat"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ((MappedProductRepository) productRepository).close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Product newProduct(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Test
+    void testReopen_RestoresProductsInOrder() throws Exception {
+        productRepository.create(newProduct("1", "Sampo Cap Bambang", 100));
+        productRepository.create(newProduct("2", "Sampo Cap Usep", 50));
+        productRepository.create(newProduct("3", "Sabun", 5));
+        productRepository.delete("2");
+        ((MappedProductRepository) productRepository).close();
+
+        productRepository = new MappedProductRepository(directory.resolve("products.dat"));
+
+        assertEquals(2, productRepository.findAll().size());
+        assertEquals("1", productRepository.findAll().get(0).getProductId());
+        assertEquals("3", productRepository.findAll().get(1).getProductId());
+        assertEquals(1, productRepository.findByNamePrefix("sampo", 10).size());
+    }
+
+    @Test
+    void testDelete_ReusesFreedSlot() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            productRepository.create(newProduct("p-" + i, "Product " + i, i));
+        }
+        long sizeBefore = Files.size(directory.resolve("products.dat"));
+        for (int i = 0; i < 50; i++) {
+            productRepository.delete("p-" + i);
+            productRepository.create(newProduct("q-" + i, "Replacement " + i, i));
+        }
+
+        assertEquals(sizeBefore, Files.size(directory.resolve("products.dat")));
+        assertEquals(100, productRepository.findAll().size());
+        assertEquals("q-0", productRepository.findAll().get(50).getProductId());
+    }
+
+    @Test
+    void testCreate_NameTooLongIsRejected() {
+        Product product = newProduct("long", "x".repeat(MappedProductRepository.MAX_NAME_BYTES + 1), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> productRepository.create(product));
+        assertNull(productRepository.findById("long"));
+    }
+
+    @Test
+    void testUpdate_NameTooLongLeavesRecordIntact() {
+        productRepository.create(newProduct("1", "Sampo Cap Bambang", 100));
+        Product renamed = newProduct("1", "x".repeat(MappedProductRepository.MAX_NAME_BYTES + 1), 5);
+
+        assertThrows(IllegalArgumentException.class, () -> productRepository.update(renamed));
+
+        Product stored = productRepository.findById("1");
+        assertEquals("Sampo Cap Bambang", stored.getProductName());
+        assertEquals(100, stored.getProductQuantity());
+        assertEquals(1, productRepository.findByNamePrefix("sampo", 10).size());
+        assertEquals(List.of(stored.getProductId()),
+                productRepository.findTopByQuantity(1, true).stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    void testReopen_RebuildsNameAndQuantityOrders() throws Exception {
+        productRepository.create(newProduct("1", "Sampo Cap Bambang", 100));
+        productRepository.create(newProduct("2", "Sabun", 5));
+        productRepository.create(newProduct("3", "Sampo Cap Usep", 50));
+        productRepository.adjustQuantity("1", -90);
+        ((MappedProductRepository) productRepository).close();
+
+        productRepository = new MappedProductRepository(directory.resolve("products.dat"));
+
+        assertEquals(List.of("1", "3"),
+                productRepository.findByNamePrefix("SAMPO", 10).stream().map(Product::getProductId).toList());
+        assertEquals(List.of("2", "1", "3"),
+                productRepository.findTopByQuantity(3, false).stream().map(Product::getProductId).toList());
+        assertEquals(List.of("3"),
+                productRepository.findByNameContaining("usep", 10).stream().map(Product::getProductId).toList());
+    }
+}
@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductNameIndexTest {
+
+    private Map<String, Product> products;
+    private ProductNameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        products = new HashMap<>();
+        nameIndex = new ProductNameIndex(products::get);
+        save("1", "Sampo Cap Bambang");
+        save("2", "Sampo Cap Usep");
+        save("3", "Sabun Mandi");
+    }
+
+    private void save(String id, String name) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        products.put(id, product);
+        nameIndex.reindex(id);
+    }
+
+    private Set<String> ids(List<Product> result) {
+        Set<String> ids = new HashSet<>();
+        for (Product product : result) {
+            ids.add(product.getProductId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testFindByPrefix_IsCaseInsensitiveAndSorted() {
+        List<Product> result = nameIndex.findByPrefix("SAMPO", 10);
+
+        assertEquals(2, result.size());
+        assertEquals("1", result.get(0).getProductId());
+        assertEquals("2", result.get(1).getProductId());
+        assertEquals(Set.of("3"), ids(nameIndex.findByPrefix("sab", 10)));
+    }
+
+    @Test
+    void testFindContaining_ShortAndLongQueries() {
+        assertEquals(Set.of("1", "2"), ids(nameIndex.findContaining("cap", 10)));
+        assertEquals(Set.of("2"), ids(nameIndex.findContaining("Usep", 10)));
+        assertEquals(Set.of("1"), ids(nameIndex.findContaining("cap bamb", 10)));
+        assertEquals(Set.of("1", "2", "3"), ids(nameIndex.findContaining("a", 10)));
+        assertTrue(nameIndex.findContaining("cap mandi", 10).isEmpty());
+    }
+
+    @Test
+    void testQueries_RespectLimit() {
+        assertEquals(1, nameIndex.findByPrefix("sampo", 1).size());
+        assertEquals(2, nameIndex.findContaining("a", 2).size());
+    }
+
+    @Test
+    void testBlankOrNullQueries_ReturnNothing() {
+        assertTrue(nameIndex.findByPrefix("  ", 10).isEmpty());
+        assertTrue(nameIndex.findContaining(null, 10).isEmpty());
+    }
+
+    @Test
+    void testReindex_AfterRenameDropsOldName() {
+        save("2", "Shampoo Usep");
+
+        assertEquals(Set.of("1"), ids(nameIndex.findByPrefix("sampo", 10)));
+        assertEquals(Set.of("2"), ids(nameIndex.findContaining("shampoo", 10)));
+    }
+
+    @Test
+    void testReindex_AfterDeleteRemovesProduct() {
+        products.remove("3");
+        nameIndex.reindex("3");
+
+        assertTrue(nameIndex.findContaining("sabun", 10).isEmpty());
+        assertTrue(nameIndex.findByPrefix("sab", 10).isEmpty());
+    }
+}
@@ -3,23 +3,57 @@ package id.ac.ui.cs.advprog.eshop.repository;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
-class ProductRepositoryTest {
+// The shared repository contract for products, plus what is specific to them
+class ProductRepositoryTest extends RepositoryContractTest<Product> {
 
-    @InjectMocks
-    ProductRepository productRepository;
+    IProductRepository productRepository;
 
     @BeforeEach
     void setUp() {
-        productRepository = new ProductRepository();
+        productRepository = (IProductRepository) repository;
+    }
+
+    // Overridden by the suites of the other storage engines
+    @Override
+    IProductRepository createRepository() throws Exception {
+        return new ProductRepository();
+    }
+
+    @Override
+    Product newItem(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Override
+    String idOf(Product product) {
+        return product.getProductId();
+    }
+
+    @Override
+    String nameOf(Product product) {
+        return product.getProductName();
+    }
+
+    @Override
+    int quantityOf(Product product) {
+        return product.getProductQuantity();
     }
 
     @Test
@@ -410,4 +444,363 @@ class ProductRepositoryTest {
         // Assert
         assertNull(result, "Update should return null if product ID does not match");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAll_KeepsInsertionOrderAfterUpdate() {
+        for (String id : new String[]{"a", "b", "c"}) {
+            Product product = new Product();
+            product.setProductId(id);
+            product.setProductName("Product " + id);
+            product.setProductQuantity(1);
+            productRepository.create(product);
+        }
+
+        Product updatedProduct = new Product();
+        updatedProduct.setProductId("b");
+        updatedProduct.setProductName("Updated b");
+        updatedProduct.setProductQuantity(2);
+        productRepository.update(updatedProduct);
+
+        List<Product> productList = productRepository.findAll();
+        assertEquals(3, productList.size());
+        assertEquals("a", productList.get(0).getProductId());
+        assertEquals("Updated b", productList.get(1).getProductName());
+        assertEquals("c", productList.get(2).getProductId());
+    }
+
+    @Test
+    void testFindAll_KeepsInsertionOrderAfterDelete() {
+        for (String id : new String[]{"a", "b", "c"}) {
+            Product product = new Product();
+            product.setProductId(id);
+            product.setProductName("Product " + id);
+            product.setProductQuantity(1);
+            productRepository.create(product);
+        }
+
+        productRepository.delete("b");
+
+        List<Product> productList = productRepository.findAll();
+        assertEquals(2, productList.size());
+        assertEquals("a", productList.get(0).getProductId());
+        assertEquals("c", productList.get(1).getProductId());
+    }
+
+    @Test
+    void testFindById_WithManyProducts_ShouldReturnEachProduct() {
+        for (int i = 0; i < 10_000; i++) {
+            Product product = new Product();
+            product.setProductId("id-" + i);
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            productRepository.create(product);
+        }
+
+        assertEquals(10_000, productRepository.findAll().size());
+        assertEquals(1234, productRepository.findById("id-1234").getProductQuantity());
+        productRepository.delete("id-1234");
+        assertNull(productRepository.findById("id-1234"));
+        assertEquals(9_999, productRepository.findAll().size());
+    }
+
+    @Test
+    void testFindAll_ReturnsSnapshotUnaffectedByLaterWrites() {
+        Product product1 = new Product();
+        product1.setProductId("1");
+        product1.setProductName("Product 1");
+        product1.setProductQuantity(10);
+        productRepository.create(product1);
+
+        List<Product> before = productRepository.findAll();
+
+        Product product2 = new Product();
+        product2.setProductId("2");
+        product2.setProductName("Product 2");
+        product2.setProductQuantity(15);
+        productRepository.create(product2);
+        productRepository.delete("1");
+
+        assertEquals(1, before.size());
+        assertEquals("1", before.get(0).getProductId());
+        assertEquals(1, productRepository.findAll().size());
+        assertEquals("2", productRepository.findAll().get(0).getProductId());
+    }
+
+    @Test
+    void testGetVersion_ChangesOnlyWhenDataChanges() {
+        long initial = productRepository.getVersion();
+
+        Product product = new Product();
+        product.setProductId("v-1");
+        product.setProductName("Versioned");
+        product.setProductQuantity(1);
+        productRepository.create(product);
+        long afterCreate = productRepository.getVersion();
+        assertNotEquals(initial, afterCreate);
+
+        productRepository.delete("non-existing-id");
+        productRepository.update(new Product());
+        assertEquals(afterCreate, productRepository.getVersion());
+
+        productRepository.update(product);
+        long afterUpdate = productRepository.getVersion();
+        assertNotEquals(afterCreate, afterUpdate);
+
+        productRepository.delete("v-1");
+        assertNotEquals(afterUpdate, productRepository.getVersion());
+    }
+
+    @Test
+    void testCount_TracksCreatesAndDeletes() {
+        assertEquals(0, productRepository.count());
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setProductId("count-" + i);
+            product.setProductName("Product " + i);
+            productRepository.create(product);
+        }
+        productRepository.delete("count-1");
+        productRepository.delete("missing");
+
+        assertEquals(2, productRepository.count());
+        assertEquals(productRepository.findAll().size(), productRepository.count());
+    }
+
+    @Test
+    void testFindPage_ReturnsProductsPageByPage() {
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setProductId("page-" + i);
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            productRepository.create(product);
+        }
+
+        CursorPage<Product> firstPage = productRepository.findPage(null, 3);
+        assertEquals(3, firstPage.getItems().size());
+        assertEquals("page-0", firstPage.getItems().get(0).getProductId());
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPage<Product> secondPage = productRepository.findPage(firstPage.getNextCursor(), 3);
+        assertEquals(2, secondPage.getItems().size());
+        assertEquals("page-3", secondPage.getItems().get(0).getProductId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testFindByName_TracksCreateUpdateAndDelete() {
+        Product product = new Product();
+        product.setProductId("search-1");
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(1);
+        productRepository.create(product);
+
+        assertEquals(1, productRepository.findByNamePrefix("sampo", 10).size());
+        assertEquals(1, productRepository.findByNameContaining("bambang", 10).size());
+
+        Product renamed = new Product();
+        renamed.setProductId("search-1");
+        renamed.setProductName("Sabun Usep");
+        renamed.setProductQuantity(1);
+        productRepository.update(renamed);
+
+        assertTrue(productRepository.findByNamePrefix("sampo", 10).isEmpty());
+        assertEquals("Sabun Usep", productRepository.findByNameContaining("usep", 10).get(0).getProductName());
+
+        productRepository.delete("search-1");
+        assertTrue(productRepository.findByNameContaining("usep", 10).isEmpty());
+    }
+
+    private Product newProduct(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Test
+    void testCreateAll_StoresEveryProductInOrder() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(newProduct(i % 2 == 0 ? null : "batch-" + i, "Batch " + i, i));
+        }
+
+        productRepository.createAll(products);
+
+        List<Product> stored = productRepository.findAll();
+        assertEquals(1_000, stored.size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertNotNull(stored.get(i).getProductId());
+            assertEquals("Batch " + i, stored.get(i).getProductName());
+        }
+        assertEquals(1, productRepository.findByNameContaining("batch 999", 10).size());
+    }
+
+    @Test
+    void testUpdateAll_SkipsUnknownIds() {
+        productRepository.createAll(Arrays.asList(newProduct("1", "One", 1), newProduct("2", "Two", 2)));
+
+        List<Product> updated = productRepository.updateAll(Arrays.asList(
+                newProduct("1", "Uno", 10), newProduct("missing", "Nothing", 0), newProduct(null, "Null", 0)));
+
+        assertEquals(1, updated.size());
+        assertEquals("Uno", productRepository.findById("1").getProductName());
+        assertEquals("Two", productRepository.findById("2").getProductName());
+        assertNull(productRepository.findById("missing"));
+    }
+
+    @Test
+    void testDeleteAll_RemovesOnlyListedProducts() {
+        productRepository.createAll(Arrays.asList(
+                newProduct("1", "One", 1), newProduct("2", "Two", 2), newProduct("3", "Three", 3)));
+
+        productRepository.deleteAll(Arrays.asList("1", "missing", null, "3"));
+
+        assertEquals(1, productRepository.findAll().size());
+        assertEquals("2", productRepository.findAll().get(0).getProductId());
+        assertTrue(productRepository.findByNamePrefix("one", 10).isEmpty());
+    }
+
+    @Test
+    void testBatchWrites_NotifyListenersOncePerChange() {
+        List<Long> versions = new ArrayList<>();
+        productRepository.addListener((id, previous, current, version) -> versions.add(version));
+
+        productRepository.createAll(Arrays.asList(newProduct("1", "One", 1), newProduct("2", "Two", 2)));
+        productRepository.updateAll(Arrays.asList(newProduct("2", "Dos", 2), newProduct("missing", "None", 0)));
+        productRepository.deleteAll(Arrays.asList("1", "2"));
+
+        assertEquals(5, versions.size());
+        for (int i = 1; i < versions.size(); i++) {
+            assertTrue(versions.get(i) > versions.get(i - 1));
+        }
+        assertEquals(versions.get(4).longValue(), productRepository.getVersion());
+    }
+
+    @Test
+    void testAdjustQuantity_RefusesNegativeStock() {
+        productRepository.create(newProduct("stock-1", "Stocked", 5));
+
+        assertEquals(2, productRepository.adjustQuantity("stock-1", -3).getProductQuantity());
+        assertNull(productRepository.adjustQuantity("stock-1", -3));
+        assertEquals(2, productRepository.findById("stock-1").getProductQuantity());
+        assertEquals(12, productRepository.adjustQuantity("stock-1", 10).getProductQuantity());
+        assertNull(productRepository.adjustQuantity("missing", 1));
+        assertNull(productRepository.adjustQuantity(null, 1));
+        assertEquals("Stocked", productRepository.findById("stock-1").getProductName());
+    }
+
+    @Test
+    void testAdjustQuantities_AllOrNothing() {
+        productRepository.create(newProduct("a", "A", 5));
+        productRepository.create(newProduct("b", "B", 1));
+        long version = productRepository.getVersion();
+        Map<String, Integer> tooMuch = new LinkedHashMap<>();
+        tooMuch.put("a", -2);
+        tooMuch.put("b", -3);
+        Map<String, Integer> unknown = new LinkedHashMap<>();
+        unknown.put("a", -2);
+        unknown.put("missing", 1);
+
+        assertNull(productRepository.adjustQuantities(tooMuch));
+        assertNull(productRepository.adjustQuantities(unknown));
+        assertEquals(5, productRepository.findById("a").getProductQuantity());
+        assertEquals(1, productRepository.findById("b").getProductQuantity());
+        assertEquals(version, productRepository.getVersion());
+
+        Map<String, Integer> fits = new LinkedHashMap<>();
+        fits.put("b", -1);
+        fits.put("a", -2);
+        List<Product> adjusted = productRepository.adjustQuantities(fits);
+        assertEquals(List.of("b", "a"), adjusted.stream().map(Product::getProductId).toList());
+        assertEquals(0, productRepository.findById("b").getProductQuantity());
+        assertEquals(3, productRepository.findById("a").getProductQuantity());
+    }
+
+    @Test
+    void testConcurrentMultiItemReservations_NeverSplitAnOrder() throws Exception {
+        int stock = 500;
+        int threads = 16;
+        int attemptsPerThread = 100;
+        productRepository.create(newProduct("left", "Left", stock));
+        productRepository.create(newProduct("right", "Right", stock));
+        AtomicInteger reserved = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // Half the orders list the items the other way round
+            Map<String, Integer> order = new LinkedHashMap<>();
+            order.put(t % 2 == 0 ? "left" : "right", -1);
+            order.put(t % 2 == 0 ? "right" : "left", -1);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (productRepository.adjustQuantities(order) != null) {
+                        reserved.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(stock, reserved.get());
+        assertEquals(0, productRepository.findById("left").getProductQuantity());
+        assertEquals(0, productRepository.findById("right").getProductQuantity());
+    }
+
+    @Test
+    void testConcurrentDecrements_NeverOversell() throws Exception {
+        int stock = 1_000;
+        int threads = 16;
+        int attemptsPerThread = 250;
+        productRepository.create(newProduct("hot", "Hot Item", stock));
+        AtomicInteger sold = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (productRepository.adjustQuantity("hot", -1) != null) {
+                        sold.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(stock, sold.get());
+        assertEquals(0, productRepository.findById("hot").getProductQuantity());
+    }
+
+    @Test
+    void testConcurrentDecrementsAndReleases_NoLostUpdates() throws Exception {
+        int threads = 16;
+        int roundsPerThread = 500;
+        productRepository.create(newProduct("busy", "Busy Item", 10_000));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < roundsPerThread; i++) {
+                    assertNotNull(productRepository.adjustQuantity("busy", -1));
+                    assertNotNull(productRepository.adjustQuantity("busy", 2));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(10_000 + threads * roundsPerThread, productRepository.findById("busy").getProductQuantity());
+    }
+}
@@ -0,0 +1,233 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductWriteAheadLogTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("product-wal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private ProductWriteAheadLog open(ProductRepository repository, long compactThreshold) throws IOException {
+        return new ProductWriteAheadLog(repository, directory.toString(), 1, 10, compactThreshold);
+    }
+
+    private Product newProduct(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Test
+    void testRestart_RestoresCatalog() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 1_000);
+        repository.create(newProduct("1", "Sampo Cap Bambang", 100));
+        repository.create(newProduct("2", "Sampo Cap Usep", 50));
+        repository.create(newProduct("3", null, 5));
+        repository.update(newProduct("2", "Sabun Usep", 40));
+        repository.delete("1");
+        wal.close();
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 1_000).close();
+
+        List<Product> products = restored.findAll();
+        assertEquals(2, products.size());
+        assertEquals("Sabun Usep", products.get(0).getProductName());
+        assertEquals(40, products.get(0).getProductQuantity());
+        assertEquals("3", products.get(1).getProductId());
+        assertNull(products.get(1).getProductName());
+        assertNull(restored.findById("1"));
+    }
+
+    @Test
+    void testRestartTwice_KeepsWritesFromBothRuns() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 1_000);
+        repository.create(newProduct("1", "First run", 1));
+        wal.close();
+
+        repository = new ProductRepository();
+        wal = open(repository, 1_000);
+        repository.update(newProduct("1", "Second run", 2));
+        repository.create(newProduct("2", "Second run", 3));
+        wal.close();
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 1_000).close();
+        assertEquals("Second run", restored.findById("1").getProductName());
+        assertEquals(2, restored.findAll().size());
+    }
+
+    @Test
+    void testTornTail_IsIgnored() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 1_000);
+        repository.create(newProduct("1", "Survives", 1));
+        wal.close();
+
+        byte[] record = ProductWriteAheadLog.encode((byte) 1, Long.MAX_VALUE, "2", newProduct("2", "Torn", 2));
+        try (OutputStream out = Files.newOutputStream(directory.resolve("products.wal"), StandardOpenOption.APPEND)) {
+            out.write(record, 0, record.length - 3);
+        }
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 1_000).close();
+        assertEquals(1, restored.findAll().size());
+        assertEquals("Survives", restored.findById("1").getProductName());
+    }
+
+    @Test
+    void testCorruptLength_IsTreatedAsTornTail() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 1_000);
+        repository.create(newProduct("1", "Survives", 1));
+        wal.close();
+
+        // A header claiming close to 2 GB, followed by a few stray bytes
+        try (DataOutputStream out = new DataOutputStream(
+                Files.newOutputStream(directory.resolve("products.wal"), StandardOpenOption.APPEND))) {
+            out.writeInt(Integer.MAX_VALUE - 8);
+            out.writeInt(0);
+            out.write(new byte[16]);
+        }
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 1_000).close();
+        assertEquals(1, restored.findAll().size());
+        assertEquals("Survives", restored.findById("1").getProductName());
+    }
+
+    @Test
+    void testOutOfOrderRecords_LastVersionWins() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 1_000);
+        wal.onChange("1", null, newProduct("1", "Newer", 2), 20);
+        wal.onChange("1", null, newProduct("1", "Older", 1), 10);
+        wal.onChange("2", null, null, 31);
+        wal.onChange("2", null, newProduct("2", "Deleted later", 1), 30);
+        wal.close();
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 1_000).close();
+        assertEquals("Newer", restored.findById("1").getProductName());
+        assertNull(restored.findById("2"));
+    }
+
+    @Test
+    void testCompaction_KeepsStateAndShrinksLog() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 10);
+        for (int i = 0; i < 200; i++) {
+            repository.create(newProduct("p-" + (i % 5), "Product " + i, i));
+        }
+        repository.delete("p-0");
+        wal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith("products.wal.compacting")));
+        }
+        assertTrue(Files.size(directory.resolve("products.wal")) < Files.size(directory.resolve("products.snapshot")) * 10);
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 10).close();
+        assertEquals(4, restored.findAll().size());
+        assertNull(restored.findById("p-0"));
+        assertEquals(199, restored.findById("p-4").getProductQuantity());
+    }
+
+    @Test
+    void testRotation_KeepsLogLeftByFailedCompaction() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 5);
+        // What a compaction that failed earlier in this run leaves behind
+        try (OutputStream out = Files.newOutputStream(directory.resolve("products.wal.compacting"))) {
+            out.write(ProductWriteAheadLog.encode((byte) 1, 1, "left", newProduct("left", "Left over", 7)));
+        }
+        for (int i = 0; i < 20; i++) {
+            repository.create(newProduct("p-" + i, "Product " + i, i));
+        }
+        wal.close();
+
+        ProductRepository restored = new ProductRepository();
+        open(restored, 5).close();
+        assertEquals(21, restored.findAll().size());
+        assertEquals("Left over", restored.findById("left").getProductName());
+    }
+
+    @Test
+    void testFailedCompaction_KeepsLoggingAndIsFoldedInOnRestart() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ProductWriteAheadLog wal = open(repository, 5);
+        // A directory where the new snapshot is written makes every background compaction fail
+        Path blocker = directory.resolve("products.snapshot.tmp");
+        Files.createDirectory(blocker);
+        for (int i = 0; i < 20; i++) {
+            repository.create(newProduct("p-" + i, "Product " + i, i));
+        }
+        wal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("products.wal.compacting")));
+        }
+        Files.delete(blocker);
+        ProductRepository restored = new ProductRepository();
+        open(restored, 5).close();
+        assertEquals(20, restored.findAll().size());
+        assertEquals(19, restored.findById("p-19").getProductQuantity());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void benchmarkReplayOfOneMillionRecords() throws Exception {
+        int records = 1_000_000;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(directory.resolve("products.wal")))) {
+            for (int i = 0; i < records; i++) {
+                String id = "product-" + (i % 250_000);
+                out.write(ProductWriteAheadLog.encode((byte) 1, i + 1L, id, newProduct(id, "Product " + i, i)));
+            }
+        }
+
+        ProductRepository restored = new ProductRepository();
+        long start = System.nanoTime();
+        ProductWriteAheadLog wal = open(restored, Long.MAX_VALUE);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        wal.close();
+
+        System.out.printf("Replayed %,d WAL records into %,d products in %,d ms%n",
+                records, restored.findAll().size(), elapsedMillis);
+        assertEquals(250_000, restored.findAll().size());
+    }
+}
@@ -0,0 +1,116 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantityIndexTest {
+
+    private final Map<String, Product> products = new ConcurrentHashMap<>();
+    private final QuantityIndex<Product> index = new QuantityIndex<>(products::get, Product::getProductQuantity);
+
+    private void put(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductQuantity(quantity);
+        products.put(id, product);
+        index.reindex(id);
+    }
+
+    private List<String> ids(CursorPage<Product> page) {
+        return page.getItems().stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    void testTiesAreOrderedById() {
+        put("b", 5);
+        put("a", 5);
+        put("c", 1);
+
+        assertEquals(List.of("c", "a", "b"), ids(index.findPage(Integer.MIN_VALUE, Integer.MAX_VALUE, false, null, 10)));
+        assertEquals(List.of("b", "a", "c"), ids(index.findPage(Integer.MIN_VALUE, Integer.MAX_VALUE, true, null, 10)));
+    }
+
+    @Test
+    void testRangeBoundsAreInclusiveAtTheExtremes() {
+        put("min", Integer.MIN_VALUE);
+        put("max", Integer.MAX_VALUE);
+        put("zero", 0);
+
+        assertEquals(List.of("max"), ids(index.findPage(Integer.MAX_VALUE, Integer.MAX_VALUE, false, null, 10)));
+        assertEquals(List.of("min", "zero"), ids(index.findPage(Integer.MIN_VALUE, 0, false, null, 10)));
+    }
+
+    @Test
+    void testDescendingPagesContinueFromTheCursor() {
+        for (int i = 0; i < 5; i++) {
+            put("p" + i, i);
+        }
+
+        CursorPage<Product> first = index.findPage(0, 10, true, null, 2);
+        CursorPage<Product> second = index.findPage(0, 10, true, first.getNextCursor(), 2);
+        CursorPage<Product> third = index.findPage(0, 10, true, second.getNextCursor(), 2);
+
+        assertEquals(List.of("p4", "p3"), ids(first));
+        assertEquals(List.of("p2", "p1"), ids(second));
+        assertEquals(List.of("p0"), ids(third));
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void testReindexMovesAndRemovesEntries() {
+        put("a", 1);
+        put("b", 2);
+        put("a", 3);
+        products.remove("b");
+        index.reindex("b");
+
+        assertEquals(List.of("a"), ids(index.findPage(0, 10, false, null, 10)));
+        assertTrue(index.findPage(0, 2, false, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testPagesContinuePastARunOfStaleEntries() {
+        for (int i = 0; i < 8; i++) {
+            put("p" + i, i);
+        }
+        // Moved in the store but not yet reindexed; their old keys fill what would be whole pages
+        for (int i = 2; i < 6; i++) {
+            Product moved = new Product();
+            moved.setProductId("p" + i);
+            moved.setProductQuantity(100 + i);
+            products.put("p" + i, moved);
+        }
+
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Product> page = index.findPage(0, 10, false, cursor, 2);
+            visited.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("p0", "p1", "p6", "p7"), visited);
+    }
+
+    @Test
+    void testStaleEntriesAreSkipped() {
+        put("a", 1);
+        // Changed in the store but not yet reindexed, as between a write and its listener
+        products.get("a").setProductQuantity(9);
+
+        assertTrue(index.findPage(0, 5, false, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> index.findPage(0, 1, false, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.findPage(0, 1, false, "%%%", 1));
+    }
+}
@@ -0,0 +1,420 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What every {@link IRepository} promises, whatever the entity and storage
+ * engine. Each entity's suite extends this one and each engine's suite extends
+ * the entity's, so a rule written here is checked everywhere.
+ */
+abstract class RepositoryContractTest<T> {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int ITEMS_PER_THREAD = 2_000;
+
+    IRepository<T> repository;
+
+    @BeforeEach
+    void setUpRepository() throws Exception {
+        repository = createRepository();
+    }
+
+    abstract IRepository<T> createRepository() throws Exception;
+
+    abstract T newItem(String id, String name, int quantity);
+
+    abstract String idOf(T item);
+
+    abstract String nameOf(T item);
+
+    abstract int quantityOf(T item);
+
+    @Test
+    void contract_CreateThenFindById() {
+        repository.create(newItem("item-1", "First", 3));
+
+        T found = repository.findById("item-1");
+        assertNotNull(found);
+        assertEquals("First", nameOf(found));
+        assertEquals(3, quantityOf(found));
+    }
+
+    @Test
+    void contract_CreateWithNullOrEmptyId_GeneratesDistinctIds() {
+        T withNull = repository.create(newItem(null, "Null id", 1));
+        T withEmpty = repository.create(newItem("", "Empty id", 2));
+
+        assertNotNull(idOf(withNull));
+        assertFalse(idOf(withEmpty).isEmpty());
+        assertNotEquals(idOf(withNull), idOf(withEmpty));
+        assertEquals("Null id", nameOf(repository.findById(idOf(withNull))));
+        assertEquals("Empty id", nameOf(repository.findById(idOf(withEmpty))));
+    }
+
+    @Test
+    void contract_CreateIfAbsent_RefusesATakenId() {
+        repository.create(newItem("item-1", "First", 3));
+        long version = repository.getVersion();
+
+        assertNull(repository.createIfAbsent(newItem("item-1", "Second", 4)));
+        assertEquals("First", nameOf(repository.findById("item-1")));
+        assertEquals(version, repository.getVersion());
+
+        assertNotNull(repository.createIfAbsent(newItem("item-2", "Second", 4)));
+        assertEquals("Second", nameOf(repository.findById("item-2")));
+        T generated = repository.createIfAbsent(newItem(null, "Generated", 5));
+        assertEquals("Generated", nameOf(repository.findById(idOf(generated))));
+    }
+
+    @Test
+    void contract_FindAll_KeepsInsertionOrderThroughUpdatesAndDeletes() {
+        repository.create(newItem("a", "A", 1));
+        repository.create(newItem("b", "B", 1));
+        repository.create(newItem("c", "C", 1));
+        repository.update(newItem("a", "A2", 2));
+        repository.delete("b");
+
+        List<T> items = repository.findAll();
+        assertEquals(2, items.size());
+        assertEquals("A2", nameOf(items.get(0)));
+        assertEquals("c", idOf(items.get(1)));
+    }
+
+    @Test
+    void contract_FindAll_IsASnapshot() {
+        repository.create(newItem("1", "One", 1));
+        List<T> before = repository.findAll();
+
+        repository.create(newItem("2", "Two", 2));
+        repository.delete("1");
+
+        assertEquals(1, before.size());
+        assertEquals("1", idOf(before.get(0)));
+        assertEquals("2", idOf(repository.findAll().get(0)));
+    }
+
+    @Test
+    void contract_ForEachItem_VisitsWhatFindAllLists() {
+        repository.createAll(List.of(newItem("a", "A", 1), newItem("b", "B", 2), newItem("c", "C", 3)));
+        repository.update(newItem("a", "A2", 4));
+        repository.delete("b");
+
+        List<String> visited = new ArrayList<>();
+        repository.forEachItem(item -> visited.add(idOf(item) + "=" + nameOf(item)));
+
+        List<String> listed = new ArrayList<>();
+        repository.findAll().forEach(item -> listed.add(idOf(item) + "=" + nameOf(item)));
+        assertEquals(List.of("a=A2", "c=C"), visited);
+        assertEquals(listed, visited);
+    }
+
+    @Test
+    void contract_UnknownAndNullIds_AreIgnored() {
+        assertNull(repository.findById("missing"));
+        assertNull(repository.findById(null));
+        assertNull(repository.update(newItem("missing", "Ghost", 1)));
+        assertNull(repository.update(newItem(null, "Ghost", 1)));
+        repository.delete("missing");
+        repository.delete(null);
+
+        assertTrue(repository.findAll().isEmpty());
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void contract_Version_ChangesOnlyWhenDataChanges() {
+        long initial = repository.getVersion();
+        repository.create(newItem("v", "Versioned", 1));
+        long afterCreate = repository.getVersion();
+        repository.delete("missing");
+        repository.update(newItem("missing", "Ghost", 1));
+        assertNotEquals(initial, afterCreate);
+        assertEquals(afterCreate, repository.getVersion());
+
+        repository.update(newItem("v", "Renamed", 1));
+        long afterUpdate = repository.getVersion();
+        assertNotEquals(afterCreate, afterUpdate);
+
+        repository.delete("v");
+        assertNotEquals(afterUpdate, repository.getVersion());
+    }
+
+    @Test
+    void contract_Count_MatchesFindAll() {
+        repository.createAll(List.of(newItem("a", "A", 1), newItem("b", "B", 2), newItem("c", "C", 3)));
+        repository.delete("b");
+        repository.delete("missing");
+
+        assertEquals(2, repository.count());
+        assertEquals(repository.findAll().size(), repository.count());
+    }
+
+    @Test
+    void contract_FindPage_VisitsEveryItemOnceInOrder() {
+        for (int i = 0; i < 7; i++) {
+            repository.create(newItem("page-" + i, "Item " + i, i));
+        }
+
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> page = repository.findPage(cursor, 3);
+            assertTrue(page.getItems().size() <= 3);
+            page.getItems().forEach(item -> visited.add(idOf(item)));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("page-0", "page-1", "page-2", "page-3", "page-4", "page-5", "page-6"), visited);
+    }
+
+    @Test
+    void contract_FindPageByQuantity_RangeInOrderThroughWrites() {
+        for (int i = 0; i < 10; i++) {
+            repository.create(newItem("q-" + i, "Item " + i, (i * 7) % 10));
+        }
+        repository.update(newItem("q-0", "Item 0", 8));
+        repository.delete("q-1");
+
+        List<String> ascending = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> page = stock().findPageByQuantity(2, 8, false, cursor, 2);
+            page.getItems().forEach(item -> ascending.add(idOf(item) + "=" + quantityOf(item)));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of("q-6=2", "q-9=3", "q-2=4", "q-5=5", "q-8=6", "q-0=8", "q-4=8"), ascending);
+
+        List<String> top = new ArrayList<>();
+        stock().findTopByQuantity(3, true).forEach(item -> top.add(idOf(item)));
+        assertEquals(List.of("q-7", "q-4", "q-0"), top);
+        assertTrue(stock().findPageByQuantity(8, 2, false, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void contract_FindPageByQuantity_UpdatesBetweenPages() {
+        for (int i = 0; i < 20; i++) {
+            repository.create(newItem("m-" + (char) ('a' + i), "Item " + i, i));
+        }
+
+        List<String> visited = new ArrayList<>();
+        CursorPage<T> page = stock().findPageByQuantity(0, 19, false, null, 3);
+        page.getItems().forEach(item -> visited.add(idOf(item)));
+        // Moved behind the cursor, moved ahead of it, and removed ahead of it
+        repository.update(newItem("m-k", "Item 10", 1));
+        repository.update(newItem("m-b", "Item 1", 15));
+        repository.delete("m-f");
+        String cursor = page.getNextCursor();
+        while (cursor != null) {
+            page = stock().findPageByQuantity(0, 19, false, cursor, 3);
+            page.getItems().forEach(item -> visited.add(idOf(item)));
+            cursor = page.getNextCursor();
+        }
+
+        assertEquals(List.of("m-a", "m-b", "m-c", "m-d", "m-e", "m-g", "m-h", "m-i", "m-j", "m-l", "m-m", "m-n",
+                "m-o", "m-b", "m-p", "m-q", "m-r", "m-s", "m-t"), visited);
+    }
+
+    @Test
+    void contract_FindPageByQuantity_RejectsForeignCursor() {
+        repository.create(newItem("a", "A", 1));
+        repository.create(newItem("b", "B", 2));
+        String insertionCursor = repository.findPage(null, 1).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> stock().findPageByQuantity(0, 10, false, insertionCursor, 1));
+    }
+
+    private IStockRepository<T> stock() {
+        return (IStockRepository<T>) repository;
+    }
+
+    @Test
+    void contract_BatchWrites() {
+        List<T> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(newItem(i < 50 ? null : "item-" + i, "Item " + i, i));
+        }
+        repository.createAll(items);
+        assertEquals(100, repository.findAll().size());
+
+        List<T> updated = repository.updateAll(List.of(newItem("item-50", "Renamed", 1), newItem("missing", "X", 1)));
+        assertEquals(1, updated.size());
+        assertEquals("Renamed", nameOf(repository.findById("item-50")));
+
+        repository.deleteAll(List.of("item-50", "item-51", "missing"));
+        assertEquals(98, repository.findAll().size());
+        assertNull(repository.findById("item-51"));
+    }
+
+    @Test
+    void contract_Listeners_SeeEveryChangeWithItsVersion() {
+        List<String> seen = new ArrayList<>();
+        repository.addListener((id, previous, current, version) -> seen.add(id + ":"
+                + (previous == null ? "-" : nameOf(previous)) + ">" + (current == null ? "-" : nameOf(current))
+                + "@" + (version == repository.getVersion())));
+
+        repository.create(newItem("l", "Before", 1));
+        repository.update(newItem("l", "After", 1));
+        repository.delete("l");
+        repository.delete("l");
+
+        assertEquals(List.of("l:->Before@true", "l:Before>After@true", "l:After>-@true"), seen);
+    }
+
+    @Test
+    void contract_FailingListener_NeitherFailsTheWriteNorSilencesOthers() {
+        List<String> seen = new ArrayList<>();
+        repository.addListener((id, previous, current, version) -> {
+            throw new IllegalStateException("listener down");
+        });
+        repository.addListener((id, previous, current, version) -> seen.add(id));
+
+        repository.create(newItem("a", "A", 1));
+        repository.createAll(List.of(newItem("b", "B", 1), newItem("c", "C", 1)));
+        repository.delete("a");
+
+        assertEquals(List.of("a", "b", "c", "a"), seen);
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void contract_ReadOnly_RefusesEveryWriteAndKeepsReads() {
+        repository.create(newItem("a", "A", 1));
+        Exception cause = new IOException("disk gone");
+        repository.markReadOnly(cause);
+        long version = repository.getVersion();
+
+        IllegalStateException refused = assertThrows(IllegalStateException.class,
+                () -> repository.create(newItem("b", "B", 1)));
+        assertSame(cause, refused.getCause());
+        assertThrows(IllegalStateException.class, () -> repository.createIfAbsent(newItem("c", "C", 1)));
+        assertThrows(IllegalStateException.class, () -> repository.update(newItem("a", "Changed", 2)));
+        assertThrows(IllegalStateException.class, () -> repository.createAll(List.of(newItem("d", "D", 1))));
+        assertThrows(IllegalStateException.class, () -> repository.deleteAll(List.of("a")));
+
+        assertEquals(version, repository.getVersion());
+        assertEquals(1, repository.count());
+        assertEquals("A", nameOf(repository.findById("a")));
+    }
+
+    @Test
+    void contract_ConcurrentCreates_LoseNothing() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                repository.create(newItem(thread + "-" + i, "Item", i));
+            }
+        });
+
+        List<T> items = repository.findAll();
+        assertEquals(THREADS * ITEMS_PER_THREAD, items.size());
+        Set<String> ids = new HashSet<>();
+        for (T item : items) {
+            ids.add(idOf(item));
+        }
+        assertEquals(THREADS * ITEMS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void contract_ConcurrentCreateIfAbsent_HasOneWinnerPerId() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                if (repository.createIfAbsent(newItem("item-" + i, "Thread " + thread, i)) != null) {
+                    created.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(ITEMS_PER_THREAD, created.get());
+        assertEquals(ITEMS_PER_THREAD, repository.count());
+    }
+
+    @Test
+    void contract_ConcurrentWritesAndReads_LoseNoUpdates() throws Exception {
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                repository.create(newItem(thread + "-" + i, "Item", 0));
+            }
+        }
+
+        List<Throwable> readerErrors = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    repository.findAll();
+                    repository.findById("0-0");
+                }
+            } catch (Throwable e) {
+                readerErrors.add(e);
+            }
+        });
+        reader.start();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                String id = thread + "-" + i;
+                if (i % 2 == 0) {
+                    repository.update(newItem(id, "Updated", i));
+                } else {
+                    repository.delete(id);
+                }
+            }
+        });
+
+        reader.interrupt();
+        reader.join();
+        assertTrue(readerErrors.isEmpty(), "Readers should never fail: " + readerErrors);
+
+        assertEquals(THREADS * ITEMS_PER_THREAD / 2, repository.findAll().size());
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                T item = repository.findById(thread + "-" + i);
+                if (i % 2 == 0) {
+                    assertEquals("Updated", nameOf(item));
+                    assertEquals(i, quantityOf(item));
+                } else {
+                    assertNull(item);
+                }
+            }
+        }
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadNumber = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(threadNumber);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+}
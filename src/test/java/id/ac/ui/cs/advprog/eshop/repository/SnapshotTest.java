@@ -0,0 +1,175 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    @Test
+    void testEmptySnapshot() {
+        Snapshot<String> snapshot = Snapshot.empty();
+
+        assertTrue(snapshot.isEmpty());
+        assertEquals(0, snapshot.getVersion());
+        assertNull(snapshot.findById("missing"));
+        assertNull(snapshot.findById(null));
+    }
+
+    @Test
+    void testPut_LeavesPreviousVersionUntouched() {
+        Snapshot<String> first = Snapshot.<String>empty().put("a", "apple");
+        Snapshot<String> second = first.put("b", "banana");
+
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertNull(first.findById("b"));
+        assertEquals("banana", second.findById("b"));
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+
+    @Test
+    void testPut_ExistingIdReplacesInPlace() {
+        Snapshot<String> snapshot = Snapshot.<String>empty()
+                .put("a", "apple")
+                .put("b", "banana")
+                .put("a", "avocado");
+
+        assertEquals(List.of("avocado", "banana"), new ArrayList<>(snapshot));
+    }
+
+    @Test
+    void testReplaceAndRemove_MissingIdReturnsSameSnapshot() {
+        Snapshot<String> snapshot = Snapshot.<String>empty().put("a", "apple");
+
+        assertSame(snapshot, snapshot.replace("missing", "x"));
+        assertSame(snapshot, snapshot.remove("missing"));
+    }
+
+    @Test
+    void testSnapshotIsReadOnly() {
+        Snapshot<String> snapshot = Snapshot.<String>empty().put("a", "apple");
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add("banana"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+    }
+
+    @Test
+    void testGet_OutOfRangeThrows() {
+        Snapshot<String> snapshot = Snapshot.<String>empty().put("a", "apple");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(1));
+    }
+
+    @Test
+    void testRandomOperations_MatchInsertionOrderedMap() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        Snapshot<Integer> snapshot = Snapshot.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            String id = "id-" + random.nextInt(2_000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    expected.put(id, i);
+                    snapshot = snapshot.put(id, i);
+                }
+                case 1 -> {
+                    expected.replace(id, i);
+                    snapshot = snapshot.replace(id, i);
+                }
+                default -> {
+                    expected.remove(id);
+                    snapshot = snapshot.remove(id);
+                }
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(snapshot));
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), snapshot.findById(entry.getKey()));
+            assertEquals(entry.getValue(), snapshot.get(index++));
+        }
+    }
+
+    @Test
+    void testCollidingHashes_AreStoredSeparately() {
+        // "Aa" and "BB" share the same String.hashCode()
+        Snapshot<String> snapshot = Snapshot.<String>empty()
+                .put("Aa", "first")
+                .put("BB", "second");
+
+        assertEquals("first", snapshot.findById("Aa"));
+        assertEquals("second", snapshot.findById("BB"));
+
+        Snapshot<String> removed = snapshot.remove("Aa");
+        assertNull(removed.findById("Aa"));
+        assertEquals("second", removed.findById("BB"));
+        assertEquals(1, removed.size());
+    }
+
+    @Test
+    void testFindPage_WalksAllItemsInOrder() {
+        Snapshot<Integer> snapshot = Snapshot.empty();
+        for (int i = 0; i < 25; i++) {
+            snapshot = snapshot.put("id-" + i, i);
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<Integer> page = snapshot.findPage(cursor, 10);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    void testFindPage_LastFullPageHasNoNextCursor() {
+        Snapshot<String> snapshot = Snapshot.<String>empty().put("a", "apple").put("b", "banana");
+
+        CursorPage<String> page = snapshot.findPage(null, 2);
+
+        assertEquals(List.of("apple", "banana"), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testFindPage_CursorStableAcrossInsertsAndDeletes() {
+        Snapshot<String> snapshot = Snapshot.<String>empty()
+                .put("a", "apple").put("b", "banana").put("c", "cherry").put("d", "durian");
+        CursorPage<String> first = snapshot.findPage(null, 2);
+
+        // Delete an item already shown and one not yet shown, then append a new one
+        Snapshot<String> changed = snapshot.remove("a").remove("c").put("e", "elderberry");
+        CursorPage<String> second = changed.findPage(first.getNextCursor(), 2);
+
+        assertEquals(List.of("apple", "banana"), first.getItems());
+        assertEquals(List.of("durian", "elderberry"), second.getItems());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testFindPage_InvalidArguments() {
+        Snapshot<String> snapshot = Snapshot.<String>empty().put("a", "apple");
+
+        assertThrows(IllegalArgumentException.class, () -> snapshot.findPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.findPage("not a cursor!", 10));
+        assertEquals(List.of("apple"), snapshot.findPage("", 10).getItems());
+    }
+}
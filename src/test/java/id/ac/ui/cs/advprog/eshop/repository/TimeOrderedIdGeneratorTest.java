@@ -0,0 +1,142 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+    @Test
+    void testIdIsVersion7Uuid() {
+        UUID id = UUID.fromString(generator.nextId());
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void testIdCarriesCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UUID.fromString(generator.nextId());
+        long after = System.currentTimeMillis();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+
+    @Test
+    void testLaterIdsSortAfterEarlierOnes() throws InterruptedException {
+        String first = generator.nextId();
+        Thread.sleep(2);
+        String second = generator.nextId();
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    void testIdsWithinOneMillisecondSortInCreationOrder() {
+        TimeOrderedIdGenerator frozen = new TimeOrderedIdGenerator(() -> 1_000L);
+        String previous = frozen.nextId();
+        // More ids than the counter holds, so it also carries into the timestamp
+        for (int i = 0; i < 5_000; i++) {
+            String next = frozen.nextId();
+            assertTrue(previous.compareTo(next) < 0, previous + " before " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testClockGoingBackDoesNotReorderIds() {
+        AtomicLong now = new AtomicLong(2_000L);
+        TimeOrderedIdGenerator clamped = new TimeOrderedIdGenerator(now::get);
+        String first = clamped.nextId();
+        now.set(1_000L);
+        String second = clamped.nextId();
+
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(2_000L, UUID.fromString(second).getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        int threads = 8;
+        int idsPerThread = 50_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+    @Test
+    void testRepositoryUsesGeneratorForMissingIds() {
+        ProductRepository repository = new ProductRepository();
+        String id = repository.create(new Product()).getProductId();
+        assertEquals(7, UUID.fromString(id).version());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "eshop.benchmark", matches = "true")
+    void benchmarkThroughputAgainstRandomUuid() throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        int idsPerThread = 500_000;
+        IdGenerator random = new RandomUuidGenerator();
+
+        // Warm both paths up before measuring
+        measure(random, threads, idsPerThread / 10);
+        measure(generator, threads, idsPerThread / 10);
+
+        double randomRate = measure(random, threads, idsPerThread);
+        double orderedRate = measure(generator, threads, idsPerThread);
+        System.out.printf("%d threads: UUID.randomUUID %,.0f ids/s, time-ordered %,.0f ids/s (%.1fx)%n",
+                threads, randomRate, orderedRate, orderedRate / randomRate);
+        assertTrue(orderedRate > randomRate);
+    }
+
+    private static double measure(IdGenerator idGenerator, int threads, int idsPerThread)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    int checksum = 0;
+                    for (int i = 0; i < idsPerThread; i++) {
+                        checksum += idGenerator.nextId().length();
+                    }
+                    assertEquals(36 * idsPerThread, checksum);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return (double) threads * idsPerThread / elapsed * 1_000_000_000L;
+    }
+}
@@ -0,0 +1,168 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogAggregatesTest {
+
+    private ProductRepository productRepository;
+    private CarRepository carRepository;
+    private CatalogAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository();
+        carRepository = new CarRepository();
+        aggregates = new CatalogAggregates(productRepository, carRepository);
+    }
+
+    private Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private Car car(String id, String color, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName("Car " + id);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    @Test
+    void testWritesMoveTheTotals() {
+        aggregates.trackRepositoryChanges();
+        productRepository.create(product("p1", 10));
+        productRepository.create(product("p2", 5));
+        productRepository.update(product("p2", 7));
+        productRepository.delete("p1");
+        carRepository.create(car("c1", "Red", 2));
+        carRepository.create(car("c2", "Red", 3));
+        carRepository.update(car("c1", "Blue", 4));
+        carRepository.create(car("c3", null, 1));
+
+        CatalogTotals totals = aggregates.getTotals();
+        assertEquals(4, totals.getSkuCount());
+        assertEquals(15, totals.getUnitsInStock());
+        assertEquals(Map.of("", 1L, "Blue", 1L, "Red", 1L), totals.getCarsPerColor());
+        assertEquals(aggregates.recount(), totals);
+    }
+
+    @Test
+    void testStartsFromWhatIsAlreadyStored() {
+        productRepository.create(product("p1", 3));
+        carRepository.create(car("c1", "Red", 2));
+
+        aggregates.trackRepositoryChanges();
+        carRepository.delete("c1");
+
+        assertEquals(new CatalogTotals(1, 3, 0, 0, Map.of()), aggregates.getTotals());
+    }
+
+    @Test
+    void testWriteDuringStartupScanIsCountedOnce() {
+        productRepository = new ProductRepository() {
+            private boolean written;
+
+            @Override
+            public void forEachItem(Consumer<? super Product> visitor) {
+                super.forEachItem(visitor);
+                if (!written) {
+                    written = true;
+                    create(product("late", 4));
+                }
+            }
+        };
+        productRepository.create(product("p1", 3));
+        aggregates = new CatalogAggregates(productRepository, carRepository);
+
+        aggregates.trackRepositoryChanges();
+        productRepository.update(product("late", 6));
+
+        assertEquals(new CatalogTotals(2, 9, 0, 0, Map.of()), aggregates.getTotals());
+        assertEquals(aggregates.recount(), aggregates.getTotals());
+    }
+
+    @Test
+    void testUpdatingAFetchedItemInPlaceMovesTheTotals() {
+        aggregates.trackRepositoryChanges();
+        productRepository.create(product("p1", 10));
+        carRepository.create(car("c1", "Red", 2));
+
+        Product fetchedProduct = productRepository.findById("p1");
+        fetchedProduct.setProductQuantity(25);
+        productRepository.update(fetchedProduct);
+        Car fetchedCar = carRepository.findById("c1");
+        fetchedCar.setCarColor("Blue");
+        carRepository.update(fetchedCar);
+
+        CatalogTotals totals = aggregates.getTotals();
+        assertEquals(25, productRepository.findById("p1").getProductQuantity());
+        assertEquals(Map.of("Blue", 1L), totals.getCarsPerColor());
+        assertEquals(aggregates.recount(), totals);
+    }
+
+    @Test
+    void testTopProductsComeFromTheQuantityIndex() {
+        aggregates.trackRepositoryChanges();
+        productRepository.create(product("p1", 10));
+        productRepository.create(product("p2", 30));
+        productRepository.create(product("p3", 20));
+
+        List<String> top = aggregates.findTopProducts(2).stream().map(Product::getProductId).toList();
+
+        assertEquals(List.of("p2", "p3"), top);
+    }
+
+    @Test
+    void testConcurrentWritesReconcileWithRecount() throws Exception {
+        aggregates.trackRepositoryChanges();
+        String[] colors = {"Red", "Blue", "Green"};
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 2_000; i++) {
+                        String id = Integer.toString(random.nextInt(50));
+                        switch (random.nextInt(3)) {
+                            case 0 -> productRepository.create(product(id, random.nextInt(100)));
+                            case 1 -> carRepository.create(car(id, colors[random.nextInt(3)], random.nextInt(100)));
+                            default -> {
+                                productRepository.delete(id);
+                                carRepository.delete(id);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(aggregates.recount(), aggregates.getTotals());
+    }
+}
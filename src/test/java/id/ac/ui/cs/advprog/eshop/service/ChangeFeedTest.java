@@ -0,0 +1,236 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private final ChangeFeed<Product> feed = new ChangeFeed<>(5, 3);
+
+    private Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private final AtomicLong versions = new AtomicLong();
+
+    // Publishes as the repository listener would, with the next repository version
+    private void publish(String id, Product previous, Product current) {
+        feed.publish(id, previous, current, versions.incrementAndGet());
+    }
+
+    private List<String> describe(List<ChangeEvent<Product>> events) {
+        return events.stream().map(event -> event.getType() + " " + event.getId()).toList();
+    }
+
+    @Test
+    void testDeltasArriveInOrder() {
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> { });
+        Product a = product("a", 1);
+
+        publish("a", null, a);
+        publish("b", null, product("b", 1));
+        assertEquals(List.of("CREATED a", "CREATED b"), describe(subscription.poll(10)));
+        publish("a", a, product("a", 2));
+        publish("b", product("b", 1), null);
+        assertEquals(List.of("UPDATED a", "DELETED b"), describe(subscription.poll(10)));
+
+        assertTrue(subscription.isEmpty());
+    }
+
+    @Test
+    void testSubscribersAreSignalledOffTheWritingThread() throws Exception {
+        Thread writer = Thread.currentThread();
+        CountDownLatch signalled = new CountDownLatch(1);
+        AtomicReference<Thread> signalThread = new AtomicReference<>();
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> {
+            signalThread.set(Thread.currentThread());
+            signalled.countDown();
+        });
+
+        publish("a", null, product("a", 1));
+
+        assertTrue(signalled.await(5, TimeUnit.SECONDS));
+        assertNotSame(writer, signalThread.get());
+        assertFalse(subscription.isEmpty());
+        assertEquals(List.of("CREATED a"), describe(subscription.poll(10)));
+    }
+
+    @Test
+    void testSubscriberOvertakenByTheHistoryIsReset() {
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> { });
+        publish("a", null, product("a", 1));
+        assertEquals(List.of("CREATED a"), describe(subscription.poll(10)));
+        // Five more fit the history of five; the sixth replaces one the client had not read
+        for (int i = 0; i < 6; i++) {
+            publish("a", product("a", i), product("a", i + 2));
+        }
+
+        List<ChangeEvent<Product>> events = subscription.poll(10);
+
+        assertEquals(List.of("RESET null"), describe(events));
+        assertTrue(events.get(0).getToken().endsWith("-7"));
+        assertTrue(subscription.isEmpty());
+        assertTrue(subscription.hasFallenBehind());
+    }
+
+    @Test
+    void testWaitingChangesCoalesce() {
+        // Six changes wait for the first poll, one more than the shared feed's history holds
+        ChangeFeed<Product> roomy = new ChangeFeed<>(10, 3);
+        ChangeSubscription<Product> subscription = roomy.subscribe(null, () -> { });
+        Product a = product("a", 1);
+        Product b = product("b", 1);
+        Product c = product("c", 1);
+
+        roomy.publish("a", null, a, versions.incrementAndGet());
+        roomy.publish("b", a, b, versions.incrementAndGet());
+        roomy.publish("b", b, product("b", 2), versions.incrementAndGet());
+        roomy.publish("c", null, c, versions.incrementAndGet());
+        roomy.publish("c", c, null, versions.incrementAndGet());
+        roomy.publish("a", a, product("a", 9), versions.incrementAndGet());
+
+        List<ChangeEvent<Product>> events = subscription.poll(10);
+        // The created-then-deleted c is never seen, and a keeps its place with its latest state
+        assertEquals(List.of("CREATED a", "UPDATED b"), describe(events));
+        assertEquals(9, events.get(0).getItem().getProductQuantity());
+        assertEquals(2, events.get(1).getItem().getProductQuantity());
+        // a carries change 6, but b's changes 2 and 3 were still waiting when it was taken
+        assertTrue(events.get(0).getToken().endsWith("-1"));
+        assertTrue(events.get(1).getToken().endsWith("-6"));
+    }
+
+    @Test
+    void testOverflowBecomesReset() {
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> { });
+        for (int i = 0; i < 4; i++) {
+            publish("p" + i, null, product("p" + i, i));
+        }
+        publish("late", null, product("late", 1));
+
+        List<ChangeEvent<Product>> events = subscription.poll(10);
+        assertEquals(List.of("RESET null", "CREATED late"), describe(events));
+        assertTrue(events.get(0).getToken().endsWith("-4"));
+        assertTrue(subscription.hasFallenBehind());
+    }
+
+    @Test
+    void testResumeReplaysWhatWasMissed() {
+        ChangeSubscription<Product> first = feed.subscribe(null, () -> { });
+        publish("a", null, product("a", 1));
+        String token = first.poll(10).get(0).getToken();
+        first.close();
+        publish("b", null, product("b", 1));
+        publish("c", null, product("c", 1));
+
+        ChangeSubscription<Product> resumed = feed.subscribe(token, () -> { });
+
+        assertEquals(List.of("CREATED b", "CREATED c"), describe(resumed.poll(10)));
+        assertEquals(1, feed.subscriberCount());
+    }
+
+    @Test
+    void testUnknownOrExpiredTokenResets() {
+        publish("a", null, product("a", 1));
+        ChangeSubscription<Product> tracking = feed.subscribe(null, () -> { });
+        for (int i = 0; i < 6; i++) {
+            publish("p" + i, null, product("p" + i, i));
+        }
+        String expired = tracking.poll(1).get(0).getToken().replaceFirst("-\\d+$", "-1");
+
+        ChangeSubscription<Product> resumed = feed.subscribe(expired, () -> { });
+        assertEquals(List.of("RESET null"), describe(resumed.poll(10)));
+        // Only a client that stopped keeping up is cut off; one resuming too late just reloads
+        assertFalse(resumed.hasFallenBehind());
+        assertEquals(List.of("RESET null"), describe(feed.subscribe("someone-else-3", () -> { }).poll(10)));
+        assertEquals(List.of("RESET null"), describe(feed.subscribe("garbage", () -> { }).poll(10)));
+    }
+
+    @Test
+    void testStaleChangeIsDropped() {
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> { });
+        Product first = product("a", 1);
+
+        feed.publish("a", null, first, 1);
+        feed.publish("a", first, product("a", 3), 3);
+        // The listener call for version 2 lost the race with version 3's
+        feed.publish("a", first, product("a", 2), 2);
+
+        List<ChangeEvent<Product>> events = subscription.poll(10);
+        assertEquals(List.of("CREATED a"), describe(events));
+        assertEquals(3, events.get(0).getItem().getProductQuantity());
+        assertEquals(3, events.get(0).getVersion());
+    }
+
+    @Test
+    void testResumeAfterMergedChangeNeverSkipsACreation() {
+        ChangeSubscription<Product> subscription = feed.subscribe(null, () -> { });
+        Product a = product("a", 1);
+        publish("a", null, a);
+        publish("b", null, product("b", 1));
+        publish("a", a, product("a", 2));
+
+        // a is taken carrying change 3, while b from change 2 is still waiting
+        String token = subscription.poll(1).get(0).getToken();
+        subscription.close();
+
+        assertEquals(List.of("CREATED b", "UPDATED a"), describe(feed.subscribe(token, () -> { }).poll(10)));
+    }
+
+    @Test
+    void testConcurrentWritersEndOnTheLatestState() throws Exception {
+        ChangeFeed<Product> large = new ChangeFeed<>(100_000, 100_000);
+        ProductRepository repository = new ProductRepository();
+        repository.addListener((id, previous, current, version) -> large.publish(id, previous, current, version));
+        Map<String, Integer> client = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            repository.create(product("p" + i, 0));
+            client.put("p" + i, 0);
+        }
+        ChangeSubscription<Product> subscription = large.subscribe(null, () -> { });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        repository.update(product("p" + random.nextInt(8), random.nextInt(1_000)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (ChangeEvent<Product> event : subscription.poll(Integer.MAX_VALUE)) {
+            assertTrue(client.containsKey(event.getId()), "Change to an item the client never saw: " + event.getId());
+            client.put(event.getId(), event.getItem().getProductQuantity());
+        }
+        for (Product stored : repository.findAll()) {
+            assertEquals(stored.getProductQuantity(), client.get(stored.getProductId()), stored.getProductId());
+        }
+    }
+}
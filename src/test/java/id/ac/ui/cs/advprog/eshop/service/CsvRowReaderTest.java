@@ -0,0 +1,75 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowReaderTest {
+
+    @Test
+    void testReadsColumnsByHeaderName() throws IOException {
+        CsvRowReader csv = new CsvRowReader(new StringReader(
+                "\uFEFFProductQuantity,productName\r\n5,Sampo\r\n\r\n7,Sabun\n"), "productName");
+
+        assertTrue(csv.next());
+        assertEquals("Sampo", csv.get("productName"));
+        assertEquals(5, csv.getInt("productQuantity"));
+        assertNull(csv.get("productId"));
+        assertTrue(csv.next());
+        assertEquals("Sabun", csv.get("productName"));
+        assertFalse(csv.next());
+    }
+
+    @Test
+    void testQuotedFields() throws IOException {
+        CsvRowReader csv = new CsvRowReader(new StringReader(
+                "productName,productQuantity\n\"Sampo, \"\"Cap\"\" Bambang\",1\n\"Two\nLines\",2"));
+
+        assertTrue(csv.next());
+        assertEquals("Sampo, \"Cap\" Bambang", csv.get("productName"));
+        assertTrue(csv.next());
+        assertEquals("Two\nLines", csv.get("productName"));
+        assertEquals(2, csv.getInt("productQuantity"));
+    }
+
+    @Test
+    void testMissingRequiredColumn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CsvRowReader(new StringReader("productName\nSampo\n"), "productName", "productQuantity"));
+        assertThrows(IllegalArgumentException.class, () -> new CsvRowReader(new StringReader("")));
+    }
+
+    @Test
+    void testImportAll_SendsRowsInBatches() throws IOException {
+        StringBuilder input = new StringBuilder("name\n");
+        for (int i = 0; i < 25; i++) {
+            input.append("item-").append(i).append('\n');
+        }
+        List<Integer> batchSizes = new ArrayList<>();
+
+        int imported = CsvRowReader.importAll(new StringReader(input.toString()), 10,
+                row -> row.get("name"), batch -> batchSizes.add(batch.size()), "name");
+
+        assertEquals(25, imported);
+        assertEquals(List.of(10, 10, 5), batchSizes);
+    }
+
+    @Test
+    void testImportAll_KeepsRowsBeforeMalformedOne() {
+        List<String> names = new ArrayList<>();
+        StringReader input = new StringReader("name,quantity\na,1\nb,2\nc,three\nd,4\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> CsvRowReader.importAll(input, 10, row -> row.get("name") + row.getInt("quantity"),
+                        names::addAll, "name", "quantity"));
+
+        assertEquals(List.of("a1", "b2"), names);
+        assertTrue(e.getMessage().startsWith("Line 4:"));
+        assertTrue(e.getMessage().contains("2 rows imported"));
+    }
+}
@@ -0,0 +1,140 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockWatchlistTest {
+
+    private final Map<String, Product> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger scans = new AtomicInteger();
+    private final List<String> crossings = new ArrayList<>();
+    private LowStockWatchlist<Product> watchlist;
+
+    @BeforeEach
+    void setUp() {
+        watchlist = new LowStockWatchlist<>(Product::getProductId, stored::get, visitor -> {
+            scans.incrementAndGet();
+            stored.values().forEach(visitor);
+        }, Product::getProductQuantity, 5);
+        watchlist.addListener((id, item, low) -> crossings.add(id + (low ? " low" : " restocked")));
+    }
+
+    // Stores the product and passes the change on, as the repository listener does
+    private void save(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductQuantity(quantity);
+        stored.put(id, product);
+        watchlist.refresh(id);
+    }
+
+    private List<String> lowIds() {
+        return watchlist.findLow().stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    void testCrossingsAreReportedOnce() {
+        save("a", 10);
+        save("a", 3);
+        save("a", 2);
+        save("a", 8);
+
+        assertEquals(List.of("a low", "a restocked"), crossings);
+        assertEquals(0, watchlist.countLow());
+        assertEquals(0, scans.get());
+    }
+
+    @Test
+    void testFindLowListsLowestFirst() {
+        save("a", 4);
+        save("b", 1);
+        save("c", 9);
+        save("d", 1);
+
+        assertEquals(List.of("b", "d", "a"), lowIds());
+    }
+
+    @Test
+    void testDeletedItemLeavesTheWatchlist() {
+        save("a", 1);
+        stored.remove("a");
+        watchlist.refresh("a");
+
+        assertTrue(watchlist.findLow().isEmpty());
+        assertEquals(List.of("a low", "a restocked"), crossings);
+    }
+
+    @Test
+    void testDeletedItemTakesItsThresholdAlong() {
+        save("a", 8);
+        save("b", 8);
+        watchlist.setThreshold("a", 10);
+        watchlist.setThreshold("b", 10);
+
+        stored.remove("a");
+        watchlist.forget("a");
+        // Deleted and created again before the delete was passed on
+        stored.remove("b");
+        save("b", 8);
+        watchlist.forget("b");
+
+        assertEquals(5, watchlist.getThreshold("a"));
+        assertEquals(10, watchlist.getThreshold("b"));
+        assertEquals(List.of("b"), lowIds());
+        save("a", 8);
+        assertEquals(List.of("b"), lowIds());
+    }
+
+    @Test
+    void testItemThresholdOverridesDefault() {
+        save("a", 8);
+        save("b", 8);
+
+        watchlist.setThreshold("a", 10);
+        assertEquals(List.of("a"), lowIds());
+        assertEquals(10, watchlist.getThreshold("a"));
+
+        watchlist.setThreshold("a", null);
+        assertTrue(watchlist.findLow().isEmpty());
+        assertEquals(5, watchlist.getThreshold("a"));
+    }
+
+    @Test
+    void testRebuildLooksUpOnlyItemsThatMayChange() {
+        AtomicInteger lookups = new AtomicInteger();
+        watchlist = new LowStockWatchlist<>(Product::getProductId, id -> {
+            lookups.incrementAndGet();
+            return stored.get(id);
+        }, visitor -> stored.values().forEach(visitor), Product::getProductQuantity, 5);
+        for (int i = 0; i < 100; i++) {
+            save("item-" + i, i < 3 ? 1 : 50);
+        }
+        lookups.set(0);
+
+        watchlist.setDefaultThreshold(2);
+
+        assertEquals(3, lookups.get());
+        assertEquals(3, watchlist.countLow());
+    }
+
+    @Test
+    void testDefaultThresholdChangeRescans() {
+        save("a", 8);
+        save("b", 3);
+        watchlist.setThreshold("b", 2);
+
+        watchlist.setDefaultThreshold(9);
+
+        assertEquals(1, scans.get());
+        assertEquals(List.of("a"), lowIds());
+    }
+}
@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Product load(String id) {
+        loads.incrementAndGet();
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        return product;
+    }
+
+    @Test
+    void testSecondReadIsAHit() {
+        ProductCache cache = new ProductCache(10, Duration.ZERO);
+
+        Product first = cache.get("1", this::load);
+        Product second = cache.get("1", this::load);
+
+        assertNotSame(first, second);
+        assertEquals("Product 1", second.getProductName());
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        ProductCache cache = new ProductCache(2, Duration.ZERO);
+        cache.get("1", this::load);
+        cache.get("2", this::load);
+        cache.get("1", this::load);
+        cache.get("3", this::load);
+
+        assertEquals(3, loads.get());
+        cache.get("1", this::load);
+        assertEquals(3, loads.get());
+        cache.get("2", this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    void testExpiredEntriesAreReloaded() throws InterruptedException {
+        ProductCache cache = new ProductCache(10, Duration.ofMillis(20));
+        cache.get("1", this::load);
+        Thread.sleep(40);
+        cache.get("1", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        ProductCache cache = new ProductCache(10, Duration.ZERO);
+        cache.get("1", this::load);
+        cache.invalidate("1");
+        cache.get("1", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() {
+        ProductCache cache = new ProductCache(10, Duration.ZERO);
+
+        // The edit lands while the old value is being read
+        cache.get("1", id -> {
+            Product stale = load(id);
+            cache.invalidate(id);
+            return stale;
+        });
+        cache.get("1", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEditingAReturnedProductLeavesTheCacheAlone() {
+        ProductCache cache = new ProductCache(10, Duration.ZERO);
+
+        cache.get("1", this::load).setProductName("Edited on miss");
+        cache.get("1", this::load).setProductName("Edited on hit");
+
+        assertEquals("Product 1", cache.get("1", this::load).getProductName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testZeroSizeDisablesCaching() {
+        ProductCache cache = new ProductCache(0, Duration.ZERO);
+        cache.get("1", this::load);
+        cache.get("1", this::load);
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+}
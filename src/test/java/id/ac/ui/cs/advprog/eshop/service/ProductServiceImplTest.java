@@ -2,15 +2,23 @@ package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.RepositoryListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,6 +29,9 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private ProductCache productCache = new ProductCache(10_000, Duration.ofSeconds(300));
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -47,6 +58,14 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).create(sampleProduct);
     }
 
+    @Test
+    void testCreateIfAbsent_TakenIdIsRefused() {
+        when(productRepository.createIfAbsent(sampleProduct)).thenReturn(null);
+
+        assertNull(productService.createIfAbsent(sampleProduct));
+        verify(productRepository, never()).create(any());
+    }
+
     @Test
     void testFindAll() {
         Product product2 = new Product();
@@ -77,6 +96,51 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).findById("12345");
     }
 
+    @Test
+    void testFindById_ServedFromCacheUntilUpdated() {
+        Product edited = new Product();
+        edited.setProductId("12345");
+        edited.setProductName("Edited Product");
+        edited.setProductQuantity(3);
+        when(productRepository.findById("12345")).thenReturn(sampleProduct, edited);
+
+        assertEquals("Sample Product", productService.findById("12345").getProductName());
+        assertEquals("Sample Product", productService.findById("12345").getProductName());
+        verify(productRepository, times(1)).findById("12345");
+
+        productService.update(edited);
+
+        assertEquals("Edited Product", productService.findById("12345").getProductName());
+        verify(productRepository, times(2)).findById("12345");
+        assertEquals(1, productService.getCacheStats().getHits());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLastModifiedAdvancesOnRepositoryChange() throws InterruptedException {
+        ArgumentCaptor<RepositoryListener<Product>> listener = ArgumentCaptor.forClass(RepositoryListener.class);
+        productService.trackRepositoryChanges();
+        verify(productRepository).addListener(listener.capture());
+        long before = productService.getLastModified();
+
+        Thread.sleep(5);
+        listener.getValue().onChange("12345", null, sampleProduct, 1);
+
+        assertTrue(productService.getLastModified() > before);
+    }
+
+    @Test
+    void testFindAll_IsNotCached() {
+        when(productRepository.findAll()).thenReturn(Arrays.asList(sampleProduct));
+
+        productService.findAll();
+        productService.findAll();
+
+        // A cached full list would pin the whole catalog on the heap
+        verify(productRepository, times(2)).findAll();
+        assertEquals(0, productService.getCacheStats().getSize());
+    }
+
     @Test
     void testUpdate() {
         when(productRepository.update(any(Product.class))).thenReturn(sampleProduct);
@@ -96,4 +160,93 @@ class ProductServiceImplTest {
 
         verify(productRepository, times(1)).delete("12345");
     }
+
+    @Test
+    void testSearchByName() {
+        List<Product> productList = Arrays.asList(sampleProduct);
+        when(productRepository.findByNamePrefix("sam", 10)).thenReturn(productList);
+        when(productRepository.findByNameContaining("ple", 10)).thenReturn(productList);
+
+        assertEquals(productList, productService.searchByName("sam", true, 10));
+        assertEquals(productList, productService.searchByName("ple", false, 10));
+        verify(productRepository, times(1)).findByNamePrefix("sam", 10);
+        verify(productRepository, times(1)).findByNameContaining("ple", 10);
+    }
+
+    @Test
+    void testBatchOperationsDelegateToRepository() {
+        List<Product> productList = Arrays.asList(sampleProduct);
+        when(productRepository.createAll(productList)).thenReturn(productList);
+        when(productRepository.updateAll(productList)).thenReturn(productList);
+
+        assertEquals(productList, productService.createAll(productList));
+        assertEquals(productList, productService.updateAll(productList));
+        productService.deleteAll(Arrays.asList("12345"));
+
+        verify(productRepository, times(1)).deleteAll(Arrays.asList("12345"));
+    }
+
+    @Test
+    void testImportCsv() throws IOException {
+        String csv = "productName,productQuantity\nSampo Cap Bambang,100\n\"Sabun, Usep\",5\n";
+
+        int imported = productService.importCsv(new StringReader(csv));
+
+        assertEquals(2, imported);
+        verify(productRepository, times(1)).createAll(argThat(products -> products.size() == 2
+                && "Sabun, Usep".equals(products.get(1).getProductName())
+                && products.get(0).getProductQuantity() == 100));
+    }
+
+    @Test
+    void testDecrementIfAvailable() {
+        when(productRepository.adjustQuantity("12345", -3)).thenReturn(sampleProduct);
+
+        assertSame(sampleProduct, productService.decrementIfAvailable("12345", 3));
+        assertThrows(IllegalArgumentException.class, () -> productService.decrementIfAvailable("12345", 0));
+    }
+
+    @Test
+    void testReserve_AllOrNothing() {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("12345", 2);
+        order.put("67890", 5);
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        deltas.put("12345", -2);
+        deltas.put("67890", -5);
+        when(productRepository.adjustQuantities(deltas)).thenReturn(null);
+
+        assertFalse(productService.reserve(order));
+
+        // The repository refuses the whole hold, so there is nothing to hand back
+        verify(productRepository, never()).adjustQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    void testReserveAndRelease() {
+        Map<String, Integer> order = Map.of("12345", 2);
+        when(productRepository.adjustQuantities(Map.of("12345", -2))).thenReturn(List.of(sampleProduct));
+
+        assertTrue(productService.reserve(order));
+        productService.release(order);
+
+        verify(productRepository, times(1)).adjustQuantity("12345", 2);
+    }
+
+    @Test
+    void testRelease_ValidatesFirstAndReportsWhatWasNotReleased() {
+        Map<String, Integer> invalid = new LinkedHashMap<>();
+        invalid.put("12345", 2);
+        invalid.put("67890", 0);
+        assertThrows(IllegalArgumentException.class, () -> productService.release(invalid));
+        verify(productRepository, never()).adjustQuantity(anyString(), anyInt());
+
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("12345", 2);
+        order.put("deleted", 5);
+        when(productRepository.adjustQuantity("12345", 2)).thenReturn(sampleProduct);
+        when(productRepository.adjustQuantity("deleted", 5)).thenReturn(null);
+
+        assertEquals(List.of("deleted"), productService.release(order));
+    }
 }
@@ -0,0 +1,112 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceImplTest {
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private ReactiveProductServiceImpl reactiveProductService;
+
+    private Product product(String id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(1);
+        return product;
+    }
+
+    @Test
+    void testFindAll_ReadsPagesAsDemanded() {
+        int batch = ReactiveProductServiceImpl.STREAM_BATCH_SIZE;
+        Product first = product("1");
+        Product second = product("2");
+        Product third = product("3");
+        when(productService.findPage(null, batch)).thenReturn(new CursorPage<>(List.of(first), "second"));
+        when(productService.findPage("second", batch)).thenReturn(new CursorPage<>(List.of(second), "third"));
+        when(productService.findPage("third", batch)).thenReturn(new CursorPage<>(List.of(third), null));
+
+        StepVerifier.create(reactiveProductService.findAll(), 1)
+                .expectNext(first)
+                // At most one page is read ahead of the subscriber
+                .then(() -> verify(productService, never()).findPage("third", batch))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNext(second, third)
+                .verifyComplete();
+        verify(productService, never()).findAll();
+    }
+
+    @Test
+    void testNothingIsReadBeforeSubscription() {
+        reactiveProductService.findAll();
+        reactiveProductService.findById("1");
+        reactiveProductService.delete("1");
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void testFindById_EmptyWhenMissing() {
+        Product existing = product("1");
+        when(productService.findById("1")).thenReturn(existing);
+        when(productService.findById("missing")).thenReturn(null);
+
+        StepVerifier.create(reactiveProductService.findById("1")).expectNext(existing).verifyComplete();
+        StepVerifier.create(reactiveProductService.findById("missing")).verifyComplete();
+    }
+
+    @Test
+    void testCreateIfAbsent_EmptyWhenIdTaken() {
+        Product taken = product("1");
+        when(productService.createIfAbsent(taken)).thenReturn(null);
+
+        StepVerifier.create(reactiveProductService.createIfAbsent(taken)).verifyComplete();
+        verify(productService, times(1)).createIfAbsent(taken);
+    }
+
+    @Test
+    void testUpdate_EmptyWhenMissing() {
+        Product unknown = product("missing");
+        when(productService.update(unknown)).thenReturn(null);
+
+        StepVerifier.create(reactiveProductService.update(unknown)).verifyComplete();
+        verify(productService, times(1)).update(unknown);
+    }
+
+    @Test
+    void testFindPage_InvalidCursorIsSignalled() {
+        when(productService.findPage("bad", 20)).thenThrow(new IllegalArgumentException("Invalid page cursor"));
+
+        StepVerifier.create(reactiveProductService.findPage("bad", 20))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testImportCsv_ReadsTheFile(@TempDir Path dir) throws IOException {
+        Path csv = Files.writeString(dir.resolve("products.csv"), "productName,productQuantity\nSampo,3\n");
+        when(productService.importCsv(any(Reader.class))).thenReturn(1);
+
+        StepVerifier.create(reactiveProductService.importCsv(csv)).expectNext(1).verifyComplete();
+        verify(productService, times(1)).importCsv(any(Reader.class));
+    }
+}